@@ -0,0 +1,98 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import vip.efactory.common.base.utils.ErrorMessageCache;
+import vip.efactory.common.base.utils.R;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:没有data的R(例如R.ok()、R.error(IBaseErrorEnum))序列化后的字节缓存，按(code,msg)缓存。
+ * msg已经是国际化后的文本，所以不同区域的响应自然是不同的key。
+ * <p>
+ * 只缓存msg来自错误枚举(无参数)的响应，参见ErrorMessageCache.isEnumMessage；动态拼接的信息(异常信息、带参数的信息)
+ * 每次序列化，不会占用缓存。缓存的数量有上限，达到上限后不再缓存新的响应。
+ * 返回的字节数组是共享的，调用方不要修改。
+ *
+ * @author dbdu
+ */
+public class ConstantResponseCache {
+    /**
+     * 默认最多缓存的响应数量
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final ConcurrentMap<Key, byte[]> cache = new ConcurrentHashMap<>();
+
+    public ConstantResponseCache(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ConstantResponseCache(ObjectMapper objectMapper, int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 获取没有data的响应序列化后的字节
+     *
+     * @param code 响应码
+     * @param msg  响应描述信息
+     * @return 序列化后的字节，不要修改
+     */
+    public byte[] get(int code, String msg) throws JsonProcessingException {
+        if (!ErrorMessageCache.isEnumMessage(msg)) {
+            return serialize(code, msg);
+        }
+        Key key = new Key(code, msg);
+        byte[] bytes = cache.get(key);
+        if (bytes == null) {
+            bytes = serialize(code, msg);
+            if (cache.size() < maxEntries) {
+                cache.putIfAbsent(key, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private byte[] serialize(int code, String msg) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new R<>(null, code, msg));
+    }
+
+    private static final class Key {
+        private final int code;
+        private final String msg;
+
+        Key(int code, String msg) {
+            this.code = code;
+            this.msg = msg;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return code == other.code && Objects.equals(msg, other.msg);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * code + Objects.hashCode(msg);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import vip.efactory.common.base.page.EPage;
+
+import java.io.IOException;
+
+/**
+ * Description:EPage的序列化器，直接写出分页信息及记录，属性名及顺序和默认的Bean序列化相同，null的处理同RSerializer。
+ * 由RModule只为EPage本身注册，EPage的子类仍然使用默认的Bean序列化。
+ *
+ * @author dbdu
+ */
+public class EPageSerializer extends FastBeanSerializer<EPage> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param defaultSerializer Jackson为EPage创建的Bean序列化器，快速路径不能处理时使用
+     */
+    public EPageSerializer(JsonSerializer<?> defaultSerializer) {
+        super(EPage.class, defaultSerializer);
+    }
+
+    @Override
+    protected void serializeFields(EPage value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeNumberField("pageIndex", value.getPageIndex());
+        gen.writeNumberField("totalCount", value.getTotalCount());
+        gen.writeNumberField("pageSize", value.getPageSize());
+        gen.writeNumberField("totalPage", value.getTotalPage());
+        if (value.getContent() != null || !RSerializer.suppressNulls(provider, EPage.class)) {
+            provider.defaultSerializeField("content", value.getContent(), gen);
+        }
+        gen.writeBooleanField("totalExact", value.isTotalExact());
+        gen.writeEndObject();
+    }
+}
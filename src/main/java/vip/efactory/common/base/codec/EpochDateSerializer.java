@@ -0,0 +1,60 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import vip.efactory.common.base.utils.DateTimeUtil;
+import vip.efactory.common.base.utils.EpochFormatter;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Description:把Date或者毫秒数(Long)序列化为日期字符串，默认格式为yyyy-MM-dd HH:mm:ss，使用EpochFormatter直接写入字符数组，
+ * 输出和DateTimeUtil.getDateString相同。没有指定时区时使用JVM的默认时区(和DateTimeUtil一致，不是Jackson默认的UTC)。
+ * <p>
+ * 不会全局注册，在需要的属性上使用：@JsonSerialize(using = EpochDateSerializer.class)；
+ * 其他格式可以继承本类，在无参构造器中指定模式。
+ *
+ * @author dbdu
+ */
+public class EpochDateSerializer extends StdSerializer<Object> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient EpochFormatter formatter;
+    private final ZoneId zone;
+
+    public EpochDateSerializer() {
+        this(DateTimeUtil.DATE_STARNDARD_FORMAT, null);
+    }
+
+    /**
+     * @param pattern 只由数字字段组成的模式，参见EpochFormatter
+     * @param zone    时区，null表示使用JVM的默认时区
+     */
+    public EpochDateSerializer(String pattern, ZoneId zone) {
+        super(Object.class);
+        this.formatter = EpochFormatter.of(pattern);
+        if (formatter == null) {
+            throw new IllegalArgumentException("pattern [" + pattern + "] is not supported by EpochFormatter");
+        }
+        this.zone = zone;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        long millis;
+        if (value instanceof Date) {
+            millis = ((Date) value).getTime();
+        } else if (value instanceof Number) {
+            millis = ((Number) value).longValue();
+        } else {
+            provider.defaultSerializeValue(value, gen);
+            return;
+        }
+        char[] buffer = new char[formatter.maxLength()];
+        int length = formatter.format(millis, zone == null ? ZoneId.systemDefault() : zone, buffer, 0);
+        gen.writeString(buffer, 0, length);
+    }
+}
@@ -0,0 +1,83 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+
+/**
+ * Description:R、EPage快速序列化器的基类，持有Jackson默认的Bean序列化器，快速路径不能处理的情况交给它：
+ * 激活了@JsonView视图、需要写出多态类型信息、@JsonUnwrapped，以及引用处的注解改变了序列化方式(例如@JsonIgnoreProperties)。
+ * 只有默认的Bean序列化和快速路径的输出相同时才会使用本类，参见RModule。
+ *
+ * @author dbdu
+ */
+abstract class FastBeanSerializer<T> extends StdSerializer<T> implements ResolvableSerializer, ContextualSerializer {
+    private static final long serialVersionUID = 1L;
+
+    private final JsonSerializer<Object> defaultSerializer;
+
+    @SuppressWarnings("unchecked")
+    FastBeanSerializer(Class<T> type, JsonSerializer<?> defaultSerializer) {
+        super(type);
+        this.defaultSerializer = (JsonSerializer<Object>) defaultSerializer;
+    }
+
+    /**
+     * 直接写出所有属性
+     */
+    protected abstract void serializeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    @Override
+    public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (provider.getActiveView() != null) {
+            defaultSerializer.serialize(value, gen, provider);
+        } else {
+            serializeFields(value, gen, provider);
+        }
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        defaultSerializer.serializeWithType(value, gen, provider, typeSer);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<T> unwrappingSerializer(NameTransformer unwrapper) {
+        return (JsonSerializer<T>) defaultSerializer.unwrappingSerializer(unwrapper);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (defaultSerializer instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) defaultSerializer).resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+        if (defaultSerializer instanceof ContextualSerializer) {
+            JsonSerializer<?> contextual = ((ContextualSerializer) defaultSerializer).createContextual(provider, property);
+            if (contextual != defaultSerializer) {
+                return contextual;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType typeHint) throws JsonMappingException {
+        defaultSerializer.acceptJsonFormatVisitor(visitor, typeHint);
+    }
+}
@@ -0,0 +1,45 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Description:注册R的流式Json写出器，使用容器中的ObjectMapper(和WebFlux默认的Jackson编解码器相同)。
+ * 写出器只支持R类型，注册后排在Jackson的默认写出器前面；非流式的R交给应用配置的Jackson2JsonEncoder
+ * (CodecConfigurer.defaultCodecs().jackson2JsonEncoder)，第一次写出时才查找，此时所有的定制器都已经执行。
+ *
+ * @author dbdu
+ */
+@Component
+public class RCodecCustomizer implements CodecCustomizer {
+    private final ObjectProvider<ObjectMapper> objectMapper;
+
+    public RCodecCustomizer(ObjectProvider<ObjectMapper> objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void customize(CodecConfigurer configurer) {
+        ObjectMapper mapper = objectMapper.getIfAvailable(ObjectMapper::new);
+        configurer.customCodecs().register(new RJsonMessageWriter(mapper, () -> jsonEncoder(configurer, mapper)));
+    }
+
+    /**
+     * 配置的Jackson2JsonEncoder，没有时使用容器中的ObjectMapper创建
+     */
+    private static Jackson2JsonEncoder jsonEncoder(CodecConfigurer configurer, ObjectMapper objectMapper) {
+        for (HttpMessageWriter<?> writer : configurer.getWriters()) {
+            if (writer instanceof EncoderHttpMessageWriter
+                    && ((EncoderHttpMessageWriter<?>) writer).getEncoder() instanceof Jackson2JsonEncoder) {
+                return (Jackson2JsonEncoder) ((EncoderHttpMessageWriter<?>) writer).getEncoder();
+            }
+        }
+        return new Jackson2JsonEncoder(objectMapper);
+    }
+}
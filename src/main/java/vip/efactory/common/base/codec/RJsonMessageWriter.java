@@ -0,0 +1,240 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2CodecSupport;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vip.efactory.common.base.page.StreamPage;
+import vip.efactory.common.base.utils.R;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Description:R的流式Json写出器，data是Flux、Mono或者StreamPage时不把全部记录收集到内存中：
+ * 先写出code、msg(以及StreamPage的分页信息)，再随着记录的产生逐条序列化写出，最后写出结尾。
+ * <p>
+ * 每条记录单独分配DataBuffer，下游没有请求时不会继续向上游请求记录(背压)。
+ * 响应头此时已经发出，记录流出错时只能中断连接，客户端会收到不完整的Json，错误信息记录在日志中。
+ * 输出的Json和Jackson直接序列化R(data是List、EPage)时的格式一致，流式输出总是使用UTF-8。
+ * <p>
+ * 其他的R交给应用配置的Jackson2JsonEncoder，@JsonView等hints、声明的类型及字符集都和WebFlux默认的写出器一致；
+ * 没有data的R(例如R.ok())在编码器使用同一个ObjectMapper、没有JsonView、字符集是UTF-8时使用ConstantResponseCache缓存的字节。
+ * 流式输出中的记录及Flux中的R也使用该编码器逐个序列化。
+ *
+ * @author dbdu
+ */
+@Slf4j
+public class RJsonMessageWriter implements HttpMessageWriter<Object> {
+    private static final List<MediaType> MEDIA_TYPES = Collections.unmodifiableList(
+            Arrays.asList(MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] OBJECT_END = {'}'};
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+    private final ObjectMapper objectMapper;
+    private final ConstantResponseCache constantResponses;
+    private final Supplier<Jackson2JsonEncoder> encoderSupplier;
+    private volatile EncoderHttpMessageWriter<Object> jsonWriter;
+
+    public RJsonMessageWriter(ObjectMapper objectMapper) {
+        this(objectMapper, () -> new Jackson2JsonEncoder(objectMapper));
+    }
+
+    /**
+     * @param objectMapper 序列化msg及缓存无data的响应使用的ObjectMapper
+     * @param encoder      非流式的R及记录使用的编码器，第一次写出时才获取
+     */
+    public RJsonMessageWriter(ObjectMapper objectMapper, Supplier<Jackson2JsonEncoder> encoder) {
+        this.objectMapper = objectMapper;
+        this.constantResponses = new ConstantResponseCache(objectMapper);
+        this.encoderSupplier = encoder;
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    /**
+     * 处理所有的R(写出时才能知道data是否需要流式输出)；流式的媒体类型(每行一个Json)交给默认的写出器
+     */
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return R.class.isAssignableFrom(elementType.toClass()) && isJson(mediaType);
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<?> inputStream, ResolvableType elementType, MediaType mediaType,
+                            ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        MediaType contentType = utf8ContentType(mediaType);
+        DataBufferFactory bufferFactory = message.bufferFactory();
+        if (inputStream instanceof Mono) {
+            return Mono.<Object>from(inputStream).switchIfEmpty(Mono.defer(() -> {
+                message.getHeaders().setContentType(contentType);
+                message.getHeaders().setContentLength(0);
+                return message.setComplete().then(Mono.empty());
+            })).flatMap(value -> {
+                R<?> r = (R<?>) value;
+                if (isStreaming(r.getData())) {
+                    message.getHeaders().setContentType(contentType);
+                    return message.writeWith(encode(r, elementType, bufferFactory, hints));
+                }
+                if (r.getData() == null && isConstant(mediaType, hints)) {
+                    // 完整的响应只有一个DataBuffer，可以给出Content-Length
+                    return Mono.fromCallable(() -> bufferFactory.wrap(constantResponses.get(r.getCode(), r.getMsg()))).flatMap(buffer -> {
+                        message.getHeaders().setContentType(contentType);
+                        message.getHeaders().setContentLength(buffer.readableByteCount());
+                        return message.writeWith(Mono.just(buffer));
+                    });
+                }
+                return jsonWriter().write(Mono.just(r), elementType, mediaType, message, hints);
+            });
+        }
+        message.getHeaders().setContentType(contentType);
+        return message.writeWith(array(inputStream, value -> encode((R<?>) value, elementType, bufferFactory, hints), bufferFactory));
+    }
+
+    private Flux<DataBuffer> encode(R<?> r, ResolvableType elementType, DataBufferFactory bufferFactory, Map<String, Object> hints) {
+        Object data = r.getData();
+        if (!isStreaming(data)) {
+            return Mono.fromCallable(() -> encodeValue(r, elementType, bufferFactory, hints)).flux();
+        }
+        Flux<DataBuffer> dataBuffers;
+        if (data instanceof StreamPage) {
+            StreamPage<?> page = (StreamPage<?>) data;
+            dataBuffers = Flux.concat(Mono.fromCallable(() -> bytes(bufferFactory, pageHeader(page))),
+                    array(page.getContent(), value -> Mono.fromCallable(() -> write(bufferFactory, value, hints)), bufferFactory),
+                    Mono.fromCallable(() -> bytes(bufferFactory, OBJECT_END)));
+        } else if (data instanceof Mono) {
+            dataBuffers = ((Mono<?>) data).map(value -> write(bufferFactory, value, hints))
+                    .switchIfEmpty(Mono.fromCallable(() -> bytes(bufferFactory, NULL))).flux();
+        } else {
+            dataBuffers = array((Publisher<?>) data, value -> Mono.fromCallable(() -> write(bufferFactory, value, hints)), bufferFactory);
+        }
+        return Flux.concat(Mono.fromCallable(() -> bytes(bufferFactory, header(r))), dataBuffers,
+                Mono.fromCallable(() -> bytes(bufferFactory, OBJECT_END)))
+                .doOnError(e -> log.error("write streaming response failed, the response is incomplete", e));
+    }
+
+    /**
+     * 完整地序列化Flux中的一个响应，没有data的响应尽量直接使用缓存的字节
+     */
+    private DataBuffer encodeValue(R<?> r, ResolvableType elementType, DataBufferFactory bufferFactory, Map<String, Object> hints)
+            throws IOException {
+        if (r.getData() == null && isConstant(MediaType.APPLICATION_JSON, hints)) {
+            return bufferFactory.wrap(constantResponses.get(r.getCode(), r.getMsg()));
+        }
+        return encoder().encodeValue(r, bufferFactory, elementType, MediaType.APPLICATION_JSON, hints);
+    }
+
+    /**
+     * 逐条写出数组的元素，除第一个元素外每个元素前面加逗号
+     */
+    private static Flux<DataBuffer> array(Publisher<?> content, Function<Object, Publisher<DataBuffer>> encoder,
+                                          DataBufferFactory bufferFactory) {
+        Flux<DataBuffer> elements = Flux.from(content).index().concatMap(tuple -> {
+            Publisher<DataBuffer> element = encoder.apply(tuple.getT2());
+            return tuple.getT1() == 0 ? element : Flux.concat(Mono.fromCallable(() -> bytes(bufferFactory, SEPARATOR)), element);
+        });
+        return Flux.concat(Mono.fromCallable(() -> bytes(bufferFactory, ARRAY_START)), elements,
+                Mono.fromCallable(() -> bytes(bufferFactory, ARRAY_END)));
+    }
+
+    private byte[] header(R<?> r) throws IOException {
+        return ("{\"code\":" + r.getCode() + ",\"msg\":" + objectMapper.writeValueAsString(r.getMsg()) + ",\"data\":")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pageHeader(StreamPage<?> page) {
+        return ("{\"pageIndex\":" + page.getPageIndex() + ",\"totalCount\":" + page.getTotalCount()
+                + ",\"pageSize\":" + page.getPageSize() + ",\"totalPage\":" + page.getTotalPage()
+                + ",\"totalExact\":" + page.isTotalExact() + ",\"content\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DataBuffer bytes(DataBufferFactory bufferFactory, byte[] bytes) {
+        return bufferFactory.wrap(bytes);
+    }
+
+    /**
+     * 使用编码器把流式输出中的一条记录序列化为UTF-8的Json
+     */
+    private DataBuffer write(DataBufferFactory bufferFactory, Object value, Map<String, Object> hints) {
+        return encoder().encodeValue(value, bufferFactory, ResolvableType.forInstance(value), MediaType.APPLICATION_JSON, hints);
+    }
+
+    private EncoderHttpMessageWriter<Object> jsonWriter() {
+        EncoderHttpMessageWriter<Object> writer = jsonWriter;
+        if (writer == null) {
+            writer = new EncoderHttpMessageWriter<>(encoderSupplier.get());
+            jsonWriter = writer;
+        }
+        return writer;
+    }
+
+    private Jackson2JsonEncoder encoder() {
+        return (Jackson2JsonEncoder) jsonWriter().getEncoder();
+    }
+
+    /**
+     * 缓存的字节和编码器的输出是否相同：同一个ObjectMapper、没有JsonView、字符集是UTF-8
+     */
+    private boolean isConstant(MediaType mediaType, Map<String, Object> hints) {
+        Charset charset = mediaType == null ? null : mediaType.getCharset();
+        return (hints == null || !hints.containsKey(Jackson2CodecSupport.JSON_VIEW_HINT))
+                && (charset == null || StandardCharsets.UTF_8.equals(charset))
+                && encoder().getObjectMapper() == objectMapper;
+    }
+
+    /**
+     * 流式输出的内容类型，指定了其他字符集时改为UTF-8
+     */
+    private static MediaType utf8ContentType(MediaType mediaType) {
+        if (mediaType == null || mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        Charset charset = mediaType.getCharset();
+        return charset == null || StandardCharsets.UTF_8.equals(charset) ? mediaType : new MediaType(mediaType, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isStreaming(Object data) {
+        return data instanceof Publisher || data instanceof StreamPage;
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        if (mediaType == null) {
+            return true;
+        }
+        if (MediaType.APPLICATION_STREAM_JSON.isCompatibleWith(mediaType) || APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+            return false;
+        }
+        for (MediaType supported : MEDIA_TYPES) {
+            if (supported.isCompatibleWith(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
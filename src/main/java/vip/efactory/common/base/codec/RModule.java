@@ -0,0 +1,122 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.annotation.*;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.annotation.JsonAppend;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import org.springframework.stereotype.Component;
+import vip.efactory.common.base.page.EPage;
+import vip.efactory.common.base.utils.R;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Description:注册R及EPage序列化器的Jackson模块，Spring Boot会把容器中的Module注册到自动配置的ObjectMapper中。
+ * <p>
+ * 快速序列化器只用于R、EPage本身(子类可能有更多的属性，使用默认的Bean序列化)，并且只在默认的Bean序列化和快速序列化器的输出相同时使用：
+ * 没有设置属性命名策略、没有按字母排序属性、包含规则是ALWAYS或者NON_NULL，类及属性上(包括mix-in)没有影响序列化的Jackson注解。
+ * 其他情况以及运行时激活了@JsonView视图时，使用Jackson默认的Bean序列化器。
+ *
+ * @author dbdu
+ */
+@Component
+public class RModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] R_PROPERTIES = {"code", "msg", "data"};
+    private static final String[] EPAGE_PROPERTIES = {"pageIndex", "totalCount", "pageSize", "totalPage", "content", "totalExact"};
+
+    /**
+     * 类上出现时不使用快速序列化器的注解
+     */
+    private static final List<Class<? extends Annotation>> CLASS_ANNOTATIONS = Arrays.asList(JsonInclude.class,
+            JsonPropertyOrder.class, JsonIgnoreProperties.class, JsonNaming.class, JsonTypeInfo.class, JsonIdentityInfo.class,
+            JsonFilter.class, JsonView.class, JsonSerialize.class, JsonAutoDetect.class, JsonFormat.class, JsonAppend.class);
+    /**
+     * 属性上出现时不使用快速序列化器的注解
+     */
+    private static final List<Class<? extends Annotation>> PROPERTY_ANNOTATIONS = Arrays.asList(JsonInclude.class,
+            JsonFormat.class, JsonSerialize.class, JsonView.class, JsonRawValue.class, JsonUnwrapped.class, JsonTypeInfo.class,
+            JsonIgnoreProperties.class, JsonIdentityReference.class, JsonManagedReference.class, JsonBackReference.class);
+
+    public RModule() {
+        super("RModule");
+        setSerializerModifier(new FastSerializerModifier());
+    }
+
+    /**
+     * 默认的Bean序列化是否和快速序列化器的输出相同
+     *
+     * @param names 快速序列化器按顺序写出的属性名
+     */
+    static boolean isPlainBean(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer, String... names) {
+        if (!(serializer instanceof BeanSerializerBase) || config.getPropertyNamingStrategy() != null
+                || config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)) {
+            return false;
+        }
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(beanDesc.getBeanClass()).getValueInclusion();
+        if (inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS
+                && inclusion != JsonInclude.Include.NON_NULL) {
+            return false;
+        }
+        for (Class<? extends Annotation> annotation : CLASS_ANNOTATIONS) {
+            if (beanDesc.getClassInfo().hasAnnotation(annotation)) {
+                return false;
+            }
+        }
+        Iterator<PropertyWriter> properties = ((BeanSerializerBase) serializer).properties();
+        for (String name : names) {
+            if (!properties.hasNext()) {
+                return false;
+            }
+            PropertyWriter property = properties.next();
+            if (!(property instanceof BeanPropertyWriter) || !name.equals(property.getName())) {
+                return false;
+            }
+            BeanPropertyWriter writer = (BeanPropertyWriter) property;
+            if (writer.getViews() != null || writer.hasSerializer() || writer.hasNullSerializer()) {
+                return false;
+            }
+            AnnotatedMember member = writer.getMember();
+            for (Class<? extends Annotation> annotation : PROPERTY_ANNOTATIONS) {
+                if (member != null && member.hasAnnotation(annotation)) {
+                    return false;
+                }
+            }
+        }
+        return !properties.hasNext();
+    }
+
+    /**
+     * 把R、EPage本身(不含子类)的Bean序列化器替换为快速序列化器
+     */
+    private static final class FastSerializerModifier extends BeanSerializerModifier implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            Class<?> type = beanDesc.getBeanClass();
+            if (type == R.class && isPlainBean(config, beanDesc, serializer, R_PROPERTIES)) {
+                return new RSerializer(serializer);
+            }
+            if (type == EPage.class && isPlainBean(config, beanDesc, serializer, EPAGE_PROPERTIES)) {
+                return new EPageSerializer(serializer);
+            }
+            return serializer;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package vip.efactory.common.base.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import vip.efactory.common.base.utils.R;
+
+import java.io.IOException;
+
+/**
+ * Description:R的序列化器，直接写出code、msg、data三个属性，不经过Bean属性的反射读取。
+ * 属性名及顺序和默认的Bean序列化相同；ObjectMapper(或R的类型配置)设置了NON_NULL的包含规则时，值为null的属性不输出。
+ * 由RModule只为R本身注册，R的子类仍然使用默认的Bean序列化。
+ *
+ * @author dbdu
+ */
+@SuppressWarnings("rawtypes")
+public class RSerializer extends FastBeanSerializer<R> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param defaultSerializer Jackson为R创建的Bean序列化器，快速路径不能处理时使用
+     */
+    public RSerializer(JsonSerializer<?> defaultSerializer) {
+        super(R.class, defaultSerializer);
+    }
+
+    @Override
+    protected void serializeFields(R value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        boolean suppressNulls = suppressNulls(provider, R.class);
+        gen.writeStartObject(value);
+        gen.writeNumberField("code", value.getCode());
+        if (value.getMsg() != null) {
+            gen.writeStringField("msg", value.getMsg());
+        } else if (!suppressNulls) {
+            gen.writeNullField("msg");
+        }
+        if (value.getData() != null || !suppressNulls) {
+            provider.defaultSerializeField("data", value.getData(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * 是否不输出值为null的属性
+     */
+    static boolean suppressNulls(SerializerProvider provider, Class<?> type) {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(type).getValueInclusion();
+        return inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS;
+    }
+}
@@ -0,0 +1,48 @@
+package vip.efactory.common.base.page;
+
+import vip.efactory.common.base.utils.BeanMetadata;
+
+import java.util.List;
+
+/**
+ * 未知分页对象的适配器，按EPage的属性名读取：pageIndex、totalCount、totalPage、pageSize、content，
+ * 以及可选的totalExact(没有该属性时为精确值)，属性的读方法及序号每个类只解析一次
+ *
+ * @author dbdu
+ */
+class BeanPageAdapter implements EPageAdapter {
+    private final BeanMetadata metadata;
+    private final int pageIndex;
+    private final int totalCount;
+    private final int totalPage;
+    private final int pageSize;
+    private final int content;
+    private final int totalExact;
+
+    BeanPageAdapter(Class<?> pageClass) {
+        this.metadata = BeanMetadata.of(pageClass);
+        this.pageIndex = metadata.indexOf("pageIndex");
+        this.totalCount = metadata.indexOf("totalCount");
+        this.totalPage = metadata.indexOf("totalPage");
+        this.pageSize = metadata.indexOf("pageSize");
+        this.content = metadata.indexOf("content");
+        this.totalExact = metadata.indexOf("totalExact");
+    }
+
+    @Override
+    public void fill(Object page, EPage target) {
+        target.setPageIndex(readLong(page, pageIndex));
+        target.setTotalCount(readLong(page, totalCount));
+        target.setTotalPage(readLong(page, totalPage));
+        target.setPageSize(readLong(page, pageSize));
+        target.setContent(content < 0 ? null : (List<?>) metadata.get(page, content));
+        target.setTotalExact(totalExact < 0 || !Boolean.FALSE.equals(metadata.get(page, totalExact)));
+    }
+
+    private long readLong(Object page, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException(metadata.getBeanClass().getName() + " is not a supported page object");
+        }
+        return ((Number) metadata.get(page, index)).longValue();
+    }
+}
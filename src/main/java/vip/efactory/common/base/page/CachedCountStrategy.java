@@ -0,0 +1,168 @@
+package vip.efactory.common.base.page;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import vip.efactory.common.base.bean.ObserveData;
+import vip.efactory.common.base.entity.BaseSearchField;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按(实体类名,规范化的查询条件)缓存总数，过期后重新统计；从缓存中取得的总数可能已经过时，标记为非精确值。
+ * <p>
+ * 实现了Observer接口，可以注册为服务层的观察者，收到ObserveData通知时清除对应实体类的所有缓存；
+ * 也可以直接调用invalidate。
+ *
+ * @author dbdu
+ */
+@Slf4j
+public class CachedCountStrategy implements TotalCountStrategy, Observer {
+    /**
+     * 默认每个实体类最多缓存的查询条件数量，缓存满时先清除过期的条件，仍然满时清除最早缓存的条件
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final TotalCountStrategy delegate;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentMap<String, ConcurrentMap<String, CachedTotal>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl 缓存的有效期
+     */
+    public CachedCountStrategy(Duration ttl) {
+        this(ExactCountStrategy.INSTANCE, ttl, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param delegate   缓存没有命中时使用的统计策略
+     * @param ttl        缓存的有效期
+     * @param maxEntries 每个实体类最多缓存的查询条件数量
+     */
+    public CachedCountStrategy(TotalCountStrategy delegate, Duration ttl, int maxEntries) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Mono<TotalCount> count(String className, String filterKey, CountQuery query) {
+        String key = filterKey == null ? "" : filterKey;
+        ConcurrentMap<String, CachedTotal> cache = caches.computeIfAbsent(className, name -> new ConcurrentHashMap<>());
+        CachedTotal cached = cache.get(key);
+        if (cached != null && System.nanoTime() - cached.createdAt < ttlNanos) {
+            return Mono.just(TotalCount.approximate(cached.value));
+        }
+        return delegate.count(className, key, query).doOnNext(total -> {
+            long now = System.nanoTime();
+            if (cache.size() >= maxEntries && !cache.containsKey(key)) {
+                evict(cache, now);
+            }
+            cache.put(key, new CachedTotal(total.getValue(), now));
+        });
+    }
+
+    /**
+     * 缓存满时清除过期的条件，没有过期的条件时清除最早缓存的一个
+     */
+    private void evict(ConcurrentMap<String, CachedTotal> cache, long now) {
+        cache.values().removeIf(cached -> now - cached.createdAt >= ttlNanos);
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        Map.Entry<String, CachedTotal> oldest = null;
+        for (Map.Entry<String, CachedTotal> entry : cache.entrySet()) {
+            if (oldest == null || entry.getValue().createdAt - oldest.getValue().createdAt < 0) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null) {
+            cache.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * 清除某个实体类的所有缓存
+     *
+     * @param className 实体类名
+     */
+    public void invalidate(String className) {
+        if (className != null && caches.remove(className) != null) {
+            log.debug("total count cache of [{}] invalidated", className);
+        }
+    }
+
+    /**
+     * 根据数据变化的通知清除缓存
+     */
+    public void invalidate(ObserveData data) {
+        invalidate(data.getClassName());
+    }
+
+    /**
+     * 清除所有缓存
+     */
+    public void clear() {
+        caches.clear();
+    }
+
+    /**
+     * 服务层数据变化时的通知，参见ObserveData
+     */
+    @Override
+    public void update(Observable o, Object arg) {
+        if (arg instanceof ObserveData) {
+            invalidate((ObserveData) arg);
+        }
+    }
+
+    /**
+     * 把查询条件规范化为缓存的key：条件的先后顺序不影响结果。
+     * 每个字段写为"长度:值"(null写为"-")，值中含有任何字符都不会使两组不同的条件得到相同的key
+     *
+     * @param conditions 查询条件
+     * @return 规范化的查询条件
+     */
+    public static String filterKey(Collection<BaseSearchField> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return "";
+        }
+        List<String> parts = new ArrayList<>(conditions.size());
+        for (BaseSearchField field : conditions) {
+            StringBuilder part = new StringBuilder();
+            appendField(part, field.getName());
+            appendField(part, field.getSearchType());
+            appendField(part, field.getVal());
+            appendField(part, field.getVal2());
+            appendField(part, field.getLogicalType());
+            appendField(part, field.getBracketsGroup());
+            appendField(part, field.getLogicalTypeGroup());
+            parts.add(part.toString());
+        }
+        Collections.sort(parts);
+        // 每个条件由固定数量的自定界字段组成，直接连接也不会有歧义
+        return String.join("", parts);
+    }
+
+    private static void appendField(StringBuilder key, Object value) {
+        if (value == null) {
+            key.append('-');
+        } else {
+            String text = value.toString();
+            key.append(text.length()).append(':').append(text);
+        }
+    }
+
+    private static final class CachedTotal {
+        private final long value;
+        private final long createdAt;
+
+        CachedTotal(long value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
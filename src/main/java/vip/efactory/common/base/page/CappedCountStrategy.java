@@ -0,0 +1,27 @@
+package vip.efactory.common.base.page;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 封顶统计总数：最多统计到cap+1条，超过cap时总数为cap且不是精确值，前端可以显示为"10000+"
+ *
+ * @author dbdu
+ */
+public class CappedCountStrategy implements TotalCountStrategy {
+    private final long cap;
+
+    /**
+     * @param cap 封顶值，例如：10000
+     */
+    public CappedCountStrategy(long cap) {
+        if (cap <= 0) {
+            throw new IllegalArgumentException("cap must be positive");
+        }
+        this.cap = cap;
+    }
+
+    @Override
+    public Mono<TotalCount> count(String className, String filterKey, CountQuery query) {
+        return query.count(cap + 1).map(total -> total > cap ? TotalCount.approximate(cap) : TotalCount.exact(total));
+    }
+}
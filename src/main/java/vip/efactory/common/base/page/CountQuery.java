@@ -0,0 +1,20 @@
+package vip.efactory.common.base.page;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 统计总数的查询，由调用方使用具体的持久层实现
+ *
+ * @author dbdu
+ */
+@FunctionalInterface
+public interface CountQuery {
+    /**
+     * 统计满足条件的记录数
+     *
+     * @param limit 最多统计到多少条，例如：select count(*) from (select 1 from t where ... limit ?)；
+     *              小于等于0时表示统计精确的总数
+     * @return 记录数
+     */
+    Mono<Long> count(long limit);
+}
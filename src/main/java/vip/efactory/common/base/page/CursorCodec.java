@@ -0,0 +1,95 @@
+package vip.efactory.common.base.page;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import vip.efactory.common.base.utils.ObjectMapperHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 游标的编解码：游标是最后一条记录的排序键的值，编码为Json数组后再进行URL安全的Base64编码，对前端是不透明的字符串。
+ * 排序键的值统一转换为字符串，以便直接作为BaseSearchField的val使用；日期时间保留全部精度，
+ * 转换为带小数秒的ISO_LOCAL_DATE_TIME格式，例如：2020-05-01T10:15:30.123(可以使用LocalDateTime.parse解析)，
+ * 不能截断到秒，否则和上一页最后一条记录同一秒内的记录会被跳过或者重复返回。
+ * 排序键的值不能为null，null无法参与大于、小于的比较
+ *
+ * @author dbdu
+ */
+public final class CursorCodec {
+    private static final TypeReference<List<String>> VALUES_TYPE = new TypeReference<List<String>>() {
+    };
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 编码排序键的值
+     *
+     * @param values 按排序字段顺序排列的值
+     * @return 不透明的游标
+     * @throws IllegalArgumentException 值为null
+     */
+    public static String encode(List<?> values) {
+        List<String> keys = new ArrayList<>(values.size());
+        for (Object value : values) {
+            keys.add(toKeyString(value));
+        }
+        try {
+            byte[] json = ObjectMapperHolder.writerFor(List.class).writeValueAsBytes(keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("encode cursor failed", e);
+        }
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 不透明的游标
+     * @return 按排序字段顺序排列的值
+     * @throws IllegalArgumentException 游标不是本类编码的
+     */
+    public static List<String> decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            return ObjectMapperHolder.getObjectMapper().readValue(json, VALUES_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * 排序键的值转换为字符串
+     */
+    static String toKeyString(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("seek value can not be null");
+        }
+        if (value instanceof Timestamp) {
+            // Timestamp保留纳秒
+            return DATE_TIME_FORMATTER.format(((Timestamp) value).toLocalDateTime());
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toString();
+        }
+        if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime().toString();
+        }
+        if (value instanceof Date) {
+            return DATE_TIME_FORMATTER.format(LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()));
+        }
+        if (value instanceof LocalDateTime) {
+            return DATE_TIME_FORMATTER.format((LocalDateTime) value);
+        }
+        return value.toString();
+    }
+}
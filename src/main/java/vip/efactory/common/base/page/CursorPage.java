@@ -0,0 +1,155 @@
+package vip.efactory.common.base.page;
+
+import lombok.Data;
+import reactor.core.publisher.Mono;
+import vip.efactory.common.base.entity.BaseSearchField;
+import vip.efactory.common.base.enums.ConditionRelationEnum;
+import vip.efactory.common.base.enums.SearchTypeEnum;
+import vip.efactory.common.base.utils.BeanMetadata;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页(keyset/seek分页)的结果，和EPage的偏移分页相对：下一页的条件是"排序键大于(或小于)上一页最后一条记录的排序键"，
+ * 数据库可以直接利用索引定位，翻到多深的页面开销都一样，而且不需要每次都统计总数。
+ * <p>
+ * 用法：第一页cursor为空；查询时使用seekConditions生成的条件，按seek字段排序，查询pageSize+1条记录，
+ * 然后使用of方法构建结果，多查的一条只用于判断是否还有下一页。
+ *
+ * @author dbdu
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * seek条件使用的括号组前缀
+     */
+    public static final String SEEK_GROUP_PREFIX = "seek_";
+
+    /**
+     * 下一页的游标，即本页最后一条记录的排序键，没有下一页时为null
+     */
+    private String cursor;
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasNext;
+    /**
+     * 每页元素数
+     */
+    private long pageSize;
+    /**
+     * 记录总数，只有调用方需要时才统计，没有统计时为null
+     */
+    private Long totalCount;
+    /**
+     * 记录集合
+     */
+    private List<T> content;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(String cursor, boolean hasNext, long pageSize, List<T> content) {
+        this.cursor = cursor;
+        this.hasNext = hasNext;
+        this.pageSize = pageSize;
+        this.content = content;
+    }
+
+    /**
+     * 使用查询到的记录构建游标分页结果
+     *
+     * @param rows       按seek字段排序查询到的记录，最多pageSize+1条
+     * @param pageSize   每页元素数
+     * @param seekFields 排序字段，同查询时的排序
+     * @return 游标分页结果
+     * @throws IllegalArgumentException 记录没有排序字段对应的属性，或者最后一条记录的排序字段为null
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, List<SeekField> seekFields) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String cursor = null;
+        if (hasNext && !content.isEmpty()) {
+            T last = content.get(content.size() - 1);
+            BeanMetadata metadata = BeanMetadata.of(last.getClass());
+            List<Object> values = new ArrayList<>(seekFields.size());
+            for (SeekField field : seekFields) {
+                int index = metadata.indexOf(field.getName());
+                if (index < 0) {
+                    throw new IllegalArgumentException(last.getClass().getName() + " has no property [" + field.getName() + "]");
+                }
+                Object value = metadata.get(last, index);
+                if (value == null) {
+                    throw new IllegalArgumentException("seek field [" + field.getName() + "] of " + last.getClass().getName()
+                            + " is null, seek fields must be not null");
+                }
+                values.add(value);
+            }
+            cursor = CursorCodec.encode(values);
+        }
+        return new CursorPage<>(cursor, hasNext, pageSize, content);
+    }
+
+    /**
+     * 调用方需要总数时才统计，统计和查询记录互不依赖，可以在查询记录的同时订阅
+     *
+     * @param count 统计总数的查询
+     * @return 带有总数的游标分页结果
+     */
+    public Mono<CursorPage<T>> withTotalCount(Mono<Long> count) {
+        return count.map(total -> {
+            this.totalCount = total;
+            return this;
+        }).defaultIfEmpty(this);
+    }
+
+    /**
+     * 把排序字段及游标转换为查询下一页的seek条件：
+     * (k1 > v1) 或 (k1 = v1 且 k2 > v2) 或 (k1 = v1 且 k2 = v2 且 k3 > v3) ...，倒序的字段使用小于。
+     * 每个括号内的条件为与的关系，放在以seek_开头的同一个括号组里，括号组之间为或的关系，
+     * 调用方需要把这些条件作为一个整体和其他查询条件取与。
+     *
+     * @param seekFields 排序字段，最后一个字段的值必须唯一，例如主键
+     * @param cursor     上一页返回的游标，为空时表示第一页
+     * @return seek条件，第一页时为空集合
+     * @throws IllegalArgumentException 游标无效或者和排序字段不匹配
+     */
+    public static List<BaseSearchField> seekConditions(List<SeekField> seekFields, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = CursorCodec.decode(cursor);
+        if (values.size() != seekFields.size() || values.contains(null)) {
+            throw new IllegalArgumentException("cursor does not match seek fields " + seekFields);
+        }
+        int size = seekFields.size();
+        List<BaseSearchField> conditions = new ArrayList<>(size * (size + 1) / 2);
+        int order = 0;
+        for (int group = 0; group < size; group++) {
+            String bracketsGroup = SEEK_GROUP_PREFIX + group;
+            for (int i = 0; i <= group; i++) {
+                SeekField field = seekFields.get(i);
+                int searchType;
+                if (i < group) {
+                    searchType = SearchTypeEnum.EQ.getValue();
+                } else {
+                    searchType = field.isDesc() ? SearchTypeEnum.LT.getValue() : SearchTypeEnum.GT.getValue();
+                }
+                BaseSearchField condition = new BaseSearchField();
+                condition.setName(field.getName());
+                condition.setSearchType(searchType);
+                condition.setVal(values.get(i));
+                condition.setOrder(order++);
+                condition.setBracketsGroup(bracketsGroup);
+                condition.setLogicalType(ConditionRelationEnum.AND.getValue());
+                condition.setLogicalTypeGroup(ConditionRelationEnum.OR.getValue());
+                conditions.add(condition);
+            }
+        }
+        return conditions;
+    }
+}
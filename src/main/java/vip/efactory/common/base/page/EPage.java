@@ -1,11 +1,11 @@
 package vip.efactory.common.base.page;
 
 import lombok.Data;
-import vip.efactory.common.base.utils.MapUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.Map;
 
 /**
  * EPage,意为ejpa的Page，用途是简化jpa的原始分页对象传输到前端！
@@ -13,8 +13,6 @@ import java.util.Map;
 @Data
 public class EPage implements Serializable {
     private static final long serialVersionUID = 1L;
-    private static final String JPA_PAGE_PACKAGE = "org.springframework.data.domain";
-    private static final String MBP_PAGE_PACKAGE = "com.baomidou.mybatisplus.extension.plugins.pagination";
 
     /**
      * 页面索引，即，当前页
@@ -36,6 +34,10 @@ public class EPage implements Serializable {
      * 记录集合
      */
     private List<?> content;
+    /**
+     * 记录总数是否是精确值，使用缓存、封顶或者估算的总数统计策略时为false，参见TotalCountStrategy
+     */
+    private boolean totalExact = true;
 
     public EPage() {
     }
@@ -44,39 +46,8 @@ public class EPage implements Serializable {
      * @param page 为jpa或者mybatis plus的分页对象.
      */
     public EPage(Object page) {
-        // 将对象转换为Map对象
-        Map<String, Object> paramMap = MapUtil.objectToMap2(page);
-        // 根据包名来探测是jpa的分页对象或者是Mybatis的分页对象
-        String packageName = page.getClass().getPackage().getName();
-        if (packageName.equalsIgnoreCase(JPA_PAGE_PACKAGE)) {
-            // Spring Data JPA的分页对象
-            this.pageIndex = (int) paramMap.get("number");
-            this.pageSize = (int) paramMap.get("size");
-            this.totalPage = (int) paramMap.get("totalPages");
-            this.totalCount = (long) paramMap.get("totalElements");
-            this.content = (List<?>) paramMap.get("content");
-        } else if (packageName.equalsIgnoreCase(MBP_PAGE_PACKAGE)) {
-            // Mybatis Plus 的分页对象
-            this.pageIndex = (long) paramMap.get("current");
-            this.totalCount = (long) paramMap.get("total");
-            this.pageSize = (long) paramMap.get("size");
-            // 计算总页数
-            if (this.pageSize > 0) {
-                long pages = this.totalCount / this.pageSize;
-                if (this.totalCount % this.pageSize != 0) {
-                    pages++;
-                }
-                this.totalPage = pages;
-            }
-            this.content = (List<?>) paramMap.get("records");
-        } else {
-            // 未知的对象按照当前对象属性来处理
-            this.pageIndex = (long) paramMap.get("pageIndex");
-            this.totalCount = (long) paramMap.get("totalCount");
-            this.totalPage = (long) paramMap.get("totalPage");
-            this.pageSize = (long) paramMap.get("pageSize");
-            this.content = (List<?>) paramMap.get("content");
-        }
+        // 适配器按分页对象的类缓存：jpa的Page及mybatis plus的IPage直接通过接口读取，未知的对象按照当前对象属性来处理
+        EPageAdapters.getAdapter(page.getClass()).fill(page, this);
     }
 
     public EPage(long pageIndex, long totalCount, long pageSize, long totalPage, List<?> content) {
@@ -98,4 +69,81 @@ public class EPage implements Serializable {
     public static EPage page(long pageIndex, long totalCount, long pageSize, long totalPage, List<?> content) {
         return new EPage(pageIndex, totalCount, pageSize, totalPage, content);
     }
+
+    /**
+     * 响应式地组装分页对象，同时订阅统计总数和查询记录，页面耗时为两者中较慢的一个而不是两者之和。
+     * 查询到的记录少于每页元素数时说明是最后一页，总数可以直接算出来，此时会取消还没有完成的统计查询。
+     *
+     * @param count     统计总数的查询
+     * @param content   查询当前页记录的查询
+     * @param pageIndex 当前页，从1开始，同mybatis plus
+     * @param pageSize  每页元素数
+     * @return 分页对象，总页数的计算方式同mybatis plus的分页对象
+     */
+    public static <T> Mono<EPage> assemble(Mono<Long> count, Flux<T> content, long pageIndex, long pageSize) {
+        return assemble(content, count.map(TotalCount::exact), pageIndex, pageSize);
+    }
+
+    /**
+     * 响应式地组装分页对象，总数使用指定的统计策略，例如大表上使用缓存或者封顶的总数
+     *
+     * @param content   查询当前页记录的查询
+     * @param strategy  总数统计策略
+     * @param className 实体类名，用于缓存失效
+     * @param filterKey 规范化后的查询条件，参见CachedCountStrategy.filterKey
+     * @param query     统计总数的查询
+     * @param pageIndex 当前页，从1开始，同mybatis plus
+     * @param pageSize  每页元素数
+     * @return 分页对象
+     */
+    public static <T> Mono<EPage> assemble(Flux<T> content, TotalCountStrategy strategy, String className, String filterKey,
+                                           CountQuery query, long pageIndex, long pageSize) {
+        return assemble(content, Mono.defer(() -> strategy.count(className, filterKey, query)), pageIndex, pageSize);
+    }
+
+    /**
+     * 响应式地组装分页对象，同时订阅统计总数和查询记录；是最后一页时总数直接算出来，是精确值
+     *
+     * @param content   查询当前页记录的查询
+     * @param count     统计总数
+     * @param pageIndex 当前页，从1开始，同mybatis plus
+     * @param pageSize  每页元素数
+     * @return 分页对象
+     */
+    public static <T> Mono<EPage> assemble(Flux<T> content, Mono<TotalCount> count, long pageIndex, long pageSize) {
+        long offset = Math.max(pageIndex - 1, 0) * pageSize;
+        Mono<List<T>> records = content.collectList().cache();
+        // 记录足以算出总数时发出信号，取消统计查询
+        Mono<List<T>> lastPage = records.flatMap(list -> isLastPage(list.size(), offset, pageSize) ? Mono.just(list) : Mono.never());
+        Mono<TotalCount> total = count.takeUntilOther(lastPage).defaultIfEmpty(TotalCount.exact(0));
+        return Mono.zip(records, total).map(tuple -> {
+            List<T> list = tuple.getT1();
+            TotalCount totalCount = isLastPage(list.size(), offset, pageSize) ? TotalCount.exact(offset + list.size()) : tuple.getT2();
+            EPage page = new EPage(pageIndex, totalCount.getValue(), pageSize, computeTotalPage(totalCount.getValue(), pageSize), list);
+            page.setTotalExact(totalCount.isExact());
+            return page;
+        });
+    }
+
+    /**
+     * 不满一页且(有记录或者是第一页)时就是最后一页，总数等于偏移量加上本页的记录数；
+     * 超出最后一页的空页无法确定总数
+     */
+    private static boolean isLastPage(int size, long offset, long pageSize) {
+        return size < pageSize && (size > 0 || offset == 0);
+    }
+
+    /**
+     * 计算总页数，同mybatis plus的分页对象
+     */
+    static long computeTotalPage(long totalCount, long pageSize) {
+        if (pageSize <= 0) {
+            return 0;
+        }
+        long pages = totalCount / pageSize;
+        if (totalCount % pageSize != 0) {
+            pages++;
+        }
+        return pages;
+    }
 }
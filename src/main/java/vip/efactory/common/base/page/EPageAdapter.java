@@ -0,0 +1,16 @@
+package vip.efactory.common.base.page;
+
+/**
+ * 分页对象适配器，把jpa、mybatis plus等框架的分页对象的数据填充到EPage
+ *
+ * @author dbdu
+ */
+public interface EPageAdapter {
+    /**
+     * 将分页对象的数据填充到EPage
+     *
+     * @param page   框架的分页对象
+     * @param target 需要填充的EPage
+     */
+    void fill(Object page, EPage target);
+}
@@ -0,0 +1,67 @@
+package vip.efactory.common.base.page;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页对象适配器的注册表，每个分页对象的类只查找一次适配器。
+ * classpath中有spring-data-commons或mybatis-plus-core时，直接通过Page或IPage接口读取数据，不使用反射；
+ * 其他类型按EPage的属性名通过缓存的读方法读取。
+ *
+ * @author dbdu
+ */
+public final class EPageAdapters {
+    private static final ClassLoader CLASS_LOADER = EPageAdapters.class.getClassLoader();
+    private static final Class<?> SPRING_DATA_PAGE = resolve(SpringDataPageAdapter.PAGE_CLASS);
+    private static final Class<?> MYBATIS_PLUS_PAGE = resolve(MybatisPlusPageAdapter.PAGE_CLASS);
+
+    private static final Map<Class<?>, EPageAdapter> CUSTOM_ADAPTERS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<EPageAdapter> ADAPTERS = new ClassValue<EPageAdapter>() {
+        @Override
+        protected EPageAdapter computeValue(Class<?> type) {
+            for (Map.Entry<Class<?>, EPageAdapter> entry : CUSTOM_ADAPTERS.entrySet()) {
+                if (entry.getKey().isAssignableFrom(type)) {
+                    return entry.getValue();
+                }
+            }
+            if (SPRING_DATA_PAGE != null && SPRING_DATA_PAGE.isAssignableFrom(type)) {
+                return new SpringDataPageAdapter();
+            }
+            if (MYBATIS_PLUS_PAGE != null && MYBATIS_PLUS_PAGE.isAssignableFrom(type)) {
+                return new MybatisPlusPageAdapter();
+            }
+            return new BeanPageAdapter(type);
+        }
+    };
+
+    private EPageAdapters() {
+    }
+
+    /**
+     * 获取分页对象的适配器，结果按类缓存
+     */
+    public static EPageAdapter getAdapter(Class<?> pageClass) {
+        return ADAPTERS.get(pageClass);
+    }
+
+    /**
+     * 注册自定义分页类型的适配器，对该类型及其子类生效，需要在第一次转换该类型的分页对象之前注册
+     *
+     * @param pageType 分页对象的类或接口
+     * @param adapter  适配器
+     */
+    public static void register(Class<?> pageType, EPageAdapter adapter) {
+        CUSTOM_ADAPTERS.put(pageType, adapter);
+        ADAPTERS.remove(pageType);
+    }
+
+    private static Class<?> resolve(String className) {
+        if (!ClassUtils.isPresent(className, CLASS_LOADER)) {
+            return null;
+        }
+        return ClassUtils.resolveClassName(className, CLASS_LOADER);
+    }
+}
@@ -0,0 +1,27 @@
+package vip.efactory.common.base.page;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+/**
+ * 估算总数，例如使用数据库的统计信息(PostgreSQL的pg_class.reltuples、MySQL的information_schema.TABLES)或者explain的行数，
+ * 估算方式由调用方提供，不会执行统计查询
+ *
+ * @author dbdu
+ */
+public class EstimatedCountStrategy implements TotalCountStrategy {
+    private final BiFunction<String, String, Mono<Long>> estimator;
+
+    /**
+     * @param estimator 估算函数，参数为实体类名及规范化后的查询条件
+     */
+    public EstimatedCountStrategy(BiFunction<String, String, Mono<Long>> estimator) {
+        this.estimator = estimator;
+    }
+
+    @Override
+    public Mono<TotalCount> count(String className, String filterKey, CountQuery query) {
+        return estimator.apply(className, filterKey).map(TotalCount::approximate);
+    }
+}
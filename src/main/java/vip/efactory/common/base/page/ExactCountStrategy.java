@@ -0,0 +1,17 @@
+package vip.efactory.common.base.page;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 每次都精确统计总数，即原来的方式
+ *
+ * @author dbdu
+ */
+public class ExactCountStrategy implements TotalCountStrategy {
+    public static final ExactCountStrategy INSTANCE = new ExactCountStrategy();
+
+    @Override
+    public Mono<TotalCount> count(String className, String filterKey, CountQuery query) {
+        return query.count(0).map(TotalCount::exact);
+    }
+}
@@ -0,0 +1,27 @@
+package vip.efactory.common.base.page;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+
+/**
+ * Mybatis Plus的分页对象适配器，只有classpath中有mybatis-plus-core时才会加载
+ *
+ * @author dbdu
+ */
+class MybatisPlusPageAdapter implements EPageAdapter {
+    static final String PAGE_CLASS = "com.baomidou.mybatisplus.core.metadata.IPage";
+
+    @Override
+    public void fill(Object page, EPage target) {
+        IPage<?> source = (IPage<?>) page;
+        long totalCount = source.getTotal();
+        long pageSize = source.getSize();
+        target.setPageIndex(source.getCurrent());
+        target.setTotalCount(totalCount);
+        target.setPageSize(pageSize);
+        // 计算总页数
+        if (pageSize > 0) {
+            target.setTotalPage(EPage.computeTotalPage(totalCount, pageSize));
+        }
+        target.setContent(source.getRecords());
+    }
+}
@@ -0,0 +1,34 @@
+package vip.efactory.common.base.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 游标分页的排序字段，多个排序字段共同组成唯一的排序键，最后一个通常是主键，例如：createTime desc,id desc
+ * 排序字段的值不能为null，可以为null的列不要作为排序字段
+ *
+ * @author dbdu
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SeekField {
+    /**
+     * 实体的属性名，例如：id,createTime
+     */
+    private final String name;
+
+    /**
+     * 是否倒序
+     */
+    private final boolean desc;
+
+    public static SeekField asc(String name) {
+        return new SeekField(name, false);
+    }
+
+    public static SeekField desc(String name) {
+        return new SeekField(name, true);
+    }
+}
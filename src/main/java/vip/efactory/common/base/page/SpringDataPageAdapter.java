@@ -0,0 +1,22 @@
+package vip.efactory.common.base.page;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Spring Data的分页对象适配器，只有classpath中有spring-data-commons时才会加载
+ *
+ * @author dbdu
+ */
+class SpringDataPageAdapter implements EPageAdapter {
+    static final String PAGE_CLASS = "org.springframework.data.domain.Page";
+
+    @Override
+    public void fill(Object page, EPage target) {
+        Page<?> source = (Page<?>) page;
+        target.setPageIndex(source.getNumber());
+        target.setPageSize(source.getSize());
+        target.setTotalPage(source.getTotalPages());
+        target.setTotalCount(source.getTotalElements());
+        target.setContent(source.getContent());
+    }
+}
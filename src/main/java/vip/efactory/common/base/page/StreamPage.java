@@ -0,0 +1,47 @@
+package vip.efactory.common.base.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+
+/**
+ * 流式的分页对象，属性同EPage，但记录是Flux而不是已经查询完的List，
+ * 配合RJsonMessageWriter先输出分页信息，再逐条输出记录，不需要把整页记录缓存在内存中，适合大批量导出
+ *
+ * @author dbdu
+ */
+@Getter
+@AllArgsConstructor
+public class StreamPage<T> {
+    /**
+     * 页面索引，即，当前页
+     */
+    private final long pageIndex;
+    /**
+     * 记录总数
+     */
+    private final long totalCount;
+    /**
+     * 每页元素数
+     */
+    private final long pageSize;
+    /**
+     * 总页数
+     */
+    private final long totalPage;
+    /**
+     * 记录总数是否是精确值
+     */
+    private final boolean totalExact;
+    /**
+     * 记录流
+     */
+    private final Flux<T> content;
+
+    /**
+     * 创建流式的分页对象，总页数的计算方式同mybatis plus的分页对象
+     */
+    public static <T> StreamPage<T> of(long pageIndex, long totalCount, long pageSize, Flux<T> content) {
+        return new StreamPage<>(pageIndex, totalCount, pageSize, EPage.computeTotalPage(totalCount, pageSize), true, content);
+    }
+}
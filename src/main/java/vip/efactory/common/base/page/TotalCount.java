@@ -0,0 +1,33 @@
+package vip.efactory.common.base.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 分页的总数，以及是否是精确值
+ *
+ * @author dbdu
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TotalCount {
+    /**
+     * 记录总数
+     */
+    private final long value;
+
+    /**
+     * 是否是精确的总数；为false时可能是估算值、缓存的值，或者是封顶值(表示至少有这么多条,例如：10000+)
+     */
+    private final boolean exact;
+
+    public static TotalCount exact(long value) {
+        return new TotalCount(value, true);
+    }
+
+    public static TotalCount approximate(long value) {
+        return new TotalCount(value, false);
+    }
+}
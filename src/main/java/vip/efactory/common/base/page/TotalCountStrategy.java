@@ -0,0 +1,20 @@
+package vip.efactory.common.base.page;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 分页总数的统计策略，大表上精确统计总数的开销可能比查询一页记录还大，可以选择缓存、封顶或者估算
+ *
+ * @author dbdu
+ */
+public interface TotalCountStrategy {
+    /**
+     * 统计总数
+     *
+     * @param className 实体类名，同ObserveData的className，用于缓存失效
+     * @param filterKey 规范化后的查询条件，参见CachedCountStrategy.filterKey
+     * @param query     统计总数的查询
+     * @return 总数
+     */
+    Mono<TotalCount> count(String className, String filterKey, CountQuery query);
+}
@@ -0,0 +1,296 @@
+package vip.efactory.common.base.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Description:实体类的属性元数据缓存，每个类只用Introspector解析一次，
+ * 属性的读写方法通过LambdaMetafactory生成函数对象(无法生成时退回MethodHandle)，避免每次转换都反射调用。
+ * <p>
+ * 元数据通过ClassValue挂在实体类上，实体类被卸载时元数据随之回收。
+ * 属性顺序及包含的属性和Introspector.getBeanInfo一致，不包含class属性。
+ *
+ * @author dbdu
+ */
+public final class BeanMetadata {
+    private static final Logger logger = LoggerFactory.getLogger(BeanMetadata.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<BeanMetadata> CACHE = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> type) {
+            return new BeanMetadata(type);
+        }
+    };
+
+    private final Class<?> beanClass;
+    private final String[] names;
+    private final Class<?>[] types;
+    private final Type[] genericTypes;
+    private final Function<Object, Object>[] getters;
+    private final BiConsumer<Object, Object>[] setters;
+    private final Map<String, Integer> indexes;
+    private final Supplier<Object> constructor;
+
+    @SuppressWarnings("unchecked")
+    private BeanMetadata(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        PropertyDescriptor[] descriptors;
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+            descriptors = beanInfo.getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("introspect " + beanClass.getName() + " failed", e);
+        }
+        List<PropertyDescriptor> properties = new ArrayList<>(descriptors.length);
+        for (PropertyDescriptor descriptor : descriptors) {
+            if (descriptor.getName().compareToIgnoreCase("class") != 0) {
+                properties.add(descriptor);
+            }
+        }
+        int size = properties.size();
+        this.names = new String[size];
+        this.types = new Class<?>[size];
+        this.genericTypes = new Type[size];
+        this.getters = new Function[size];
+        this.setters = new BiConsumer[size];
+        Map<String, Integer> indexes = new HashMap<>(capacity(size));
+        for (int i = 0; i < size; i++) {
+            PropertyDescriptor property = properties.get(i);
+            names[i] = property.getName();
+            types[i] = property.getPropertyType();
+            Method readMethod = property.getReadMethod();
+            Method writeMethod = property.getWriteMethod();
+            if (readMethod != null) {
+                genericTypes[i] = readMethod.getGenericReturnType();
+                getters[i] = createGetter(readMethod);
+            } else if (writeMethod != null) {
+                genericTypes[i] = writeMethod.getGenericParameterTypes()[0];
+            } else {
+                genericTypes[i] = types[i];
+            }
+            if (writeMethod != null) {
+                setters[i] = createSetter(writeMethod);
+            }
+            indexes.put(names[i], i);
+        }
+        this.indexes = Collections.unmodifiableMap(indexes);
+        this.constructor = createConstructor(beanClass);
+    }
+
+    /**
+     * 获取实体类的属性元数据，每个类只解析一次
+     */
+    public static BeanMetadata of(Class<?> beanClass) {
+        return CACHE.get(beanClass);
+    }
+
+    /**
+     * 按预期元素数量计算HashMap的初始容量，避免扩容
+     */
+    public static int capacity(int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * 属性数量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public Class<?> getType(int index) {
+        return types[index];
+    }
+
+    public Type getGenericType(int index) {
+        return genericTypes[index];
+    }
+
+    /**
+     * 属性的序号，没有该属性时返回-1
+     */
+    public int indexOf(Object name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public boolean isReadable(int index) {
+        return getters[index] != null;
+    }
+
+    public boolean isWritable(int index) {
+        return setters[index] != null;
+    }
+
+    /**
+     * 读取属性值，属性没有读方法时返回null
+     */
+    public Object get(Object bean, int index) {
+        Function<Object, Object> getter = getters[index];
+        return getter == null ? null : getter.apply(bean);
+    }
+
+    /**
+     * 设置属性值，属性没有写方法时忽略
+     */
+    public void set(Object bean, int index, Object value) {
+        BiConsumer<Object, Object> setter = setters[index];
+        if (setter != null) {
+            setter.accept(bean, value);
+        }
+    }
+
+    /**
+     * 使用无参构造方法创建实体对象
+     */
+    public Object newInstance() {
+        if (constructor == null) {
+            throw new IllegalStateException(beanClass.getName() + " has no accessible no-arg constructor");
+        }
+        return constructor.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            if (canSpin(owner, method.getModifiers())) {
+                MethodHandle target = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), target,
+                        MethodType.methodType(MethodType.methodType(method.getReturnType()).wrap().returnType(), owner));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            }
+        } catch (Throwable e) {
+            logger.debug("spin getter {} failed, fallback to MethodHandle: {}", method, e.getMessage());
+        }
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> {
+            try {
+                return (Object) handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            if (canSpin(owner, method.getModifiers())) {
+                MethodHandle target = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class), target,
+                        MethodType.methodType(void.class, owner, MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType()));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            }
+        } catch (Throwable e) {
+            logger.debug("spin setter {} failed, fallback to MethodHandle: {}", method, e.getMessage());
+        }
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> createConstructor(Class<?> beanClass) {
+        if (beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers()) || beanClass.isPrimitive() || beanClass.isArray()) {
+            return null;
+        }
+        Constructor<?> ctor;
+        try {
+            ctor = beanClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        try {
+            if (canSpin(beanClass, ctor.getModifiers())) {
+                MethodHandle target = LOOKUP.unreflectConstructor(ctor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), target, MethodType.methodType(beanClass));
+                return (Supplier<Object>) site.getTarget().invokeExact();
+            }
+        } catch (Throwable e) {
+            logger.debug("spin constructor of {} failed, fallback to MethodHandle: {}", beanClass.getName(), e.getMessage());
+        }
+        MethodHandle handle;
+        try {
+            ctor.setAccessible(true);
+            handle = LOOKUP.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+        return () -> {
+            try {
+                return (Object) handle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new IllegalArgumentException("can not access " + method, e);
+        }
+    }
+
+    /**
+     * 生成的函数对象定义在本类的类加载器中，只有公开的、且本类加载器可见的类才能直接调用
+     */
+    private static boolean canSpin(Class<?> owner, int memberModifiers) {
+        if (!Modifier.isPublic(owner.getModifiers()) || !Modifier.isPublic(memberModifiers)) {
+            return false;
+        }
+        for (Class<?> c = owner; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(owner.getName(), false, BeanMetadata.class.getClassLoader()) == owner;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package vip.efactory.common.base.utils;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Description:把Map的值按实体属性类型转换后填充到实体对象，每个实体类只编译一次转换计划并缓存。
+ * <p>
+ * 支持的转换：字符串/数字转Long、Integer、BigDecimal等数字类型(整数类型精确转换，有小数部分或者溢出时视为无法转换)，字符串转Boolean，
+ * 字符串转Date、LocalDateTime、LocalDate、LocalTime(支持DateTimeUtil能识别的格式)，数字(毫秒数)转日期，
+ * 字符串(名称)/数字(序号)转枚举，Map转嵌套的实体对象；类型已经匹配的值直接赋值。
+ * Map中没有的key不处理，值为null或空白字符串时引用类型设置为null、基本类型不处理，无法转换时抛出IllegalArgumentException。
+ *
+ * @author dbdu
+ */
+public final class BeanPopulator<T> {
+    private static final ClassValue<BeanPopulator<?>> CACHE = new ClassValue<BeanPopulator<?>>() {
+        @Override
+        protected BeanPopulator<?> computeValue(Class<?> type) {
+            return new BeanPopulator<>(type);
+        }
+    };
+
+    private final Class<T> beanClass;
+    private final BeanMetadata metadata;
+    /**
+     * 按属性序号排列的转换函数，不可写的属性为null
+     */
+    private final Function<Object, Object>[] converters;
+
+    @SuppressWarnings("unchecked")
+    private BeanPopulator(Class<T> beanClass) {
+        this.beanClass = beanClass;
+        this.metadata = BeanMetadata.of(beanClass);
+        this.converters = new Function[metadata.size()];
+        for (int i = 0; i < converters.length; i++) {
+            if (metadata.isWritable(i)) {
+                converters[i] = converterFor(metadata.getType(i));
+            }
+        }
+    }
+
+    /**
+     * 获取实体类的填充器，转换计划每个类只编译一次
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanPopulator<T> of(Class<T> beanClass) {
+        return (BeanPopulator<T>) CACHE.get(beanClass);
+    }
+
+    public Class<T> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * 创建实体对象并使用Map的值填充
+     *
+     * @param map 属性名及值
+     * @return 实体对象
+     * @throws IllegalArgumentException 值无法转换为属性的类型，或者实体类没有可访问的无参构造器
+     */
+    public T populate(Map<String, ?> map) {
+        T bean = newInstance();
+        populate(map, bean);
+        return bean;
+    }
+
+    /**
+     * 使用Map的值填充已有的实体对象
+     *
+     * @param map  属性名及值
+     * @param bean 实体对象
+     * @throws IllegalArgumentException 值无法转换为属性的类型
+     */
+    public void populate(Map<String, ?> map, T bean) {
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            int index = metadata.indexOf(entry.getKey());
+            if (index >= 0) {
+                set(bean, index, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 属性的序号，没有该属性时返回-1，批量处理时先解析序号再调用set
+     */
+    public int indexOf(String name) {
+        return metadata.indexOf(name);
+    }
+
+    /**
+     * 转换后设置实体对象的某个属性，属性不可写时忽略
+     *
+     * @param bean  实体对象
+     * @param index 属性的序号
+     * @param value 属性值
+     * @throws IllegalArgumentException 值无法转换为属性的类型
+     */
+    public void set(T bean, int index, Object value) {
+        Function<Object, Object> converter = converters[index];
+        if (converter == null) {
+            return;
+        }
+        Object converted = null;
+        if (value != null) {
+            try {
+                converted = converter.apply(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("can not convert [" + value + "] to " + metadata.getType(index).getName()
+                        + " for property [" + metadata.getName(index) + "] of " + beanClass.getName(), e);
+            }
+        }
+        if (converted != null || !metadata.getType(index).isPrimitive()) {
+            metadata.set(bean, index, converted);
+        }
+    }
+
+    /**
+     * 创建空的实体对象
+     *
+     * @throws IllegalArgumentException 实体类没有可访问的无参构造器
+     */
+    public T newInstance() {
+        try {
+            return beanClass.cast(metadata.newInstance());
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按属性类型选择转换函数，只在编译转换计划时调用
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Function<Object, Object> converterFor(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        Class<?> target = type.isPrimitive() ? wrap(type) : type;
+        Function<Object, Object> converter;
+        if (target == String.class) {
+            converter = Object::toString;
+        } else if (target == Long.class) {
+            // 整数类型不管来源是数字还是字符串都精确转换，有小数部分或者超出范围时抛出异常，不静默截断
+            converter = value -> toBigDecimal(value).longValueExact();
+        } else if (target == Integer.class) {
+            converter = value -> toBigDecimal(value).intValueExact();
+        } else if (target == Short.class) {
+            converter = value -> toBigDecimal(value).shortValueExact();
+        } else if (target == Byte.class) {
+            converter = value -> toBigDecimal(value).byteValueExact();
+        } else if (target == Double.class) {
+            converter = value -> value instanceof Number ? (Object) ((Number) value).doubleValue() : Double.valueOf(text(value));
+        } else if (target == Float.class) {
+            converter = value -> value instanceof Number ? (Object) ((Number) value).floatValue() : Float.valueOf(text(value));
+        } else if (target == BigDecimal.class) {
+            converter = BeanPopulator::toBigDecimal;
+        } else if (target == BigInteger.class) {
+            converter = value -> value instanceof BigInteger ? value : toBigDecimal(value).toBigIntegerExact();
+        } else if (target == Boolean.class) {
+            converter = BeanPopulator::toBoolean;
+        } else if (target == Character.class) {
+            converter = value -> {
+                String text = value.toString();
+                if (text.length() != 1) {
+                    throw new IllegalArgumentException("not a single character");
+                }
+                return text.charAt(0);
+            };
+        } else if (target == Date.class) {
+            converter = BeanPopulator::toDate;
+        } else if (target == LocalDateTime.class) {
+            converter = BeanPopulator::toLocalDateTime;
+        } else if (target == LocalDate.class) {
+            converter = value -> value instanceof String ? required(DateTimeUtil.getLocalDateFromString(text(value)), value)
+                    : toLocalDateTime(value).toLocalDate();
+        } else if (target == LocalTime.class) {
+            converter = value -> value instanceof String ? required(DateTimeUtil.getLocalTimeFromString(text(value)), value)
+                    : toLocalDateTime(value).toLocalTime();
+        } else if (target.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) target;
+            converter = value -> toEnum(enumType, value);
+        } else if (isBean(target)) {
+            converter = value -> value instanceof Map ? of(target).populate((Map<String, ?>) value) : value;
+        } else {
+            converter = Function.identity();
+        }
+        Function<Object, Object> plan = converter;
+        if (target == String.class) {
+            return value -> value instanceof String ? value : plan.apply(value);
+        }
+        // 类型已经匹配时不需要转换，空白字符串(例如没有填写的查询参数)转换为null
+        return value -> {
+            if (target.isInstance(value)) {
+                return value;
+            }
+            if (value instanceof String && ((String) value).trim().isEmpty()) {
+                return null;
+            }
+            return plan.apply(value);
+        };
+    }
+
+    private static String text(Object value) {
+        return value.toString().trim();
+    }
+
+    private static <V> V required(V converted, Object value) {
+        if (converted == null) {
+            throw new IllegalArgumentException("unrecognized date format: " + value);
+        }
+        return converted;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(text(value));
+    }
+
+    private static Object toBoolean(Object value) {
+        if (value instanceof Number) {
+            return toBigDecimal(value).signum() != 0;
+        }
+        String text = text(value);
+        if ("true".equalsIgnoreCase(text) || "1".equals(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text) || "0".equals(text)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("not a boolean: " + value);
+    }
+
+    private static Object toDate(Object value) {
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        }
+        if (value instanceof LocalDateTime) {
+            return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof LocalDate) {
+            return Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof Instant) {
+            return Date.from((Instant) value);
+        }
+        return required(DateTimeUtil.getDateFromString(text(value)), value);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof Number) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Number) value).longValue()), ZoneId.systemDefault());
+        }
+        if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        }
+        String text = text(value);
+        LocalDateTime dateTime = DateTimeUtil.getLocalDateTimeFromString(text);
+        if (dateTime == null) {
+            // 只有年月日的字符串按当天零点处理
+            LocalDate date = DateTimeUtil.getLocalDateFromString(text);
+            dateTime = date == null ? null : date.atStartOfDay();
+        }
+        return required(dateTime, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<? extends Enum> enumType, Object value) {
+        Enum[] constants = enumType.getEnumConstants();
+        if (value instanceof Number) {
+            return constants[toBigDecimal(value).intValueExact()];
+        }
+        String name = text(value);
+        for (Enum constant : constants) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        for (Enum constant : constants) {
+            if (constant.name().equalsIgnoreCase(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("no enum constant " + enumType.getName() + "." + name);
+    }
+
+    /**
+     * 可以作为嵌套实体从Map填充的类型：非JDK的具体类
+     */
+    private static boolean isBean(Class<?> type) {
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        String name = type.getName();
+        return !name.startsWith("java.") && !name.startsWith("javax.");
+    }
+
+    /**
+     * 基本类型对应的包装类型
+     */
+    private static Class<?> wrap(Class<?> primitive) {
+        return MethodType.methodType(primitive).wrap().returnType();
+    }
+}
@@ -0,0 +1,170 @@
+package vip.efactory.common.base.utils;
+
+import java.util.*;
+
+/**
+ * Description:以实体对象为后端的Map视图，不复制任何属性，只有读取某个key时才调用对应属性的读方法，
+ * 写入时调用属性的写方法。key同MapUtil.objectToMap2，按属性名排序，没有读方法的属性值为null。
+ * <p>
+ * 适合只读取少数几个属性的场景，需要脱离实体对象时使用materialize()得到完整的拷贝。
+ *
+ * @author dbdu
+ */
+public final class BeanPropertyMap extends AbstractMap<String, Object> {
+    private final Object bean;
+    private final BeanMetadata metadata;
+    private EntrySet entrySet;
+
+    public BeanPropertyMap(Object bean) {
+        this.bean = Objects.requireNonNull(bean, "bean");
+        this.metadata = BeanMetadata.of(bean.getClass());
+    }
+
+    /**
+     * 视图后端的实体对象
+     */
+    public Object getBean() {
+        return bean;
+    }
+
+    /**
+     * 读取全部属性，得到一个和实体对象无关的HashMap拷贝
+     */
+    public Map<String, Object> materialize() {
+        int size = metadata.size();
+        Map<String, Object> map = new HashMap<>(BeanMetadata.capacity(size));
+        for (int i = 0; i < size; i++) {
+            map.put(metadata.getName(i), metadata.get(bean, i));
+        }
+        return map;
+    }
+
+    @Override
+    public int size() {
+        return metadata.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return metadata.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return metadata.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = metadata.indexOf(key);
+        return index < 0 ? null : metadata.get(bean, index);
+    }
+
+    /**
+     * 通过属性的写方法设置属性值
+     *
+     * @throws IllegalArgumentException 没有该属性或者属性是只读的
+     */
+    @Override
+    public Object put(String key, Object value) {
+        int index = metadata.indexOf(key);
+        if (index < 0 || !metadata.isWritable(index)) {
+            throw new IllegalArgumentException("property [" + key + "] of " + metadata.getBeanClass().getName() + " is not writable");
+        }
+        Object old = metadata.get(bean, index);
+        metadata.set(bean, index, value);
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("clear");
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        EntrySet es = entrySet;
+        if (es == null) {
+            es = new EntrySet();
+            entrySet = es;
+        }
+        return es;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+        @Override
+        public int size() {
+            return metadata.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < metadata.size();
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (index >= metadata.size()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new PropertyEntry(index++);
+                }
+            };
+        }
+    }
+
+    /**
+     * 延迟读取属性值的Entry
+     */
+    private final class PropertyEntry implements Entry<String, Object> {
+        private final int index;
+
+        PropertyEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return metadata.getName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return metadata.get(bean, index);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package vip.efactory.common.base.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Description:粗粒度的缓存时钟，后台守护线程每隔tick毫秒(1-10，默认1)把当前毫秒数写入volatile字段，
+ * 频繁获取"现在"的调用(日志、审计时间戳等)只需要读取该字段，不需要创建Date、Calendar。
+ * <p>
+ * 同时缓存默认时区的当天开始时间，及每个模式当前秒(只含年月日等日期字段的模式为当天)的格式化结果，
+ * 同一秒内的调用直接返回缓存的字符串。默认时区每秒检查一次，默认区域(Locale)变化时重新格式化。
+ * <p>
+ * 读到的时间最多比System.currentTimeMillis()晚一个tick，需要精确时间的场景请直接使用System.currentTimeMillis()。
+ * 后台线程在第一次使用时启动，Spring容器关闭时停止，之后再使用时重新启动。
+ *
+ * @author dbdu
+ */
+@Slf4j
+@Component
+public class CachedClock implements DisposableBean {
+    public static final int MIN_TICK_MILLIS = 1;
+    public static final int MAX_TICK_MILLIS = 10;
+    /**
+     * 最多缓存格式化结果的模式数量，超出后新的模式不再缓存
+     */
+    private static final int MAX_PATTERNS = 256;
+    /**
+     * 只含这些字母的模式，其格式化结果在一天之内不变
+     */
+    private static final String DATE_LETTERS = "GyYuMLdDEFwW";
+
+    private static final ConcurrentMap<String, Formatted> FORMATTED = new ConcurrentHashMap<>();
+
+    private static volatile long tickNanos = TimeUnit.MILLISECONDS.toNanos(MIN_TICK_MILLIS);
+    private static volatile long now;
+    private static volatile Today today;
+    private static volatile Thread ticker;
+
+    /**
+     * 后台线程更新时间的间隔毫秒数，1-10，超出范围时取边界值
+     */
+    @Value("${efactory.clock.tick-millis:1}")
+    public void setTickMillis(int tickMillis) {
+        int millis = Math.max(MIN_TICK_MILLIS, Math.min(MAX_TICK_MILLIS, tickMillis));
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * 当前毫秒数，最多比System.currentTimeMillis()晚一个tick
+     */
+    public static long currentTimeMillis() {
+        if (ticker == null) {
+            return start();
+        }
+        return now;
+    }
+
+    /**
+     * 默认时区当天开始(00:00:00.000)的毫秒数
+     */
+    public static long todayStart() {
+        return today(currentTimeMillis()).start;
+    }
+
+    /**
+     * 默认时区第二天开始的毫秒数，夏令时切换的当天和todayStart相差的不是24小时
+     */
+    public static long tomorrowStart() {
+        return today(currentTimeMillis()).end;
+    }
+
+    /**
+     * 默认时区的当天日期
+     */
+    public static LocalDate today() {
+        return today(currentTimeMillis()).date;
+    }
+
+    /**
+     * 默认时区，每秒检查一次是否变化，不需要每次调用TimeZone.getDefault()克隆对象
+     */
+    public static ZoneId zone() {
+        return today(currentTimeMillis()).zone;
+    }
+
+    /**
+     * 使用默认时区格式化当前时间，同一秒内(只含日期字段的模式为同一天内)返回缓存的结果
+     *
+     * @param pattern SimpleDateFormat写法的模式
+     * @return 格式化的当前时间
+     */
+    public static String format(String pattern) {
+        long millis = currentTimeMillis();
+        Today day = today(millis);
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Formatted formatted = FORMATTED.get(pattern);
+        if (formatted != null && millis >= formatted.from && millis < formatted.to
+                && formatted.zone.equals(day.zone) && formatted.locale.equals(locale)) {
+            return formatted.text;
+        }
+        String text = DateTimeFormats.format(millis, pattern, day.zone);
+        long from;
+        long to;
+        if (isDatePattern(pattern)) {
+            from = day.start;
+            to = day.end;
+        } else if (pattern.indexOf('S') < 0) {
+            from = Math.floorDiv(millis, 1000L) * 1000L;
+            to = from + 1000L;
+        } else {
+            // 含有毫秒的模式不缓存
+            return text;
+        }
+        if (FORMATTED.size() < MAX_PATTERNS || FORMATTED.containsKey(pattern)) {
+            FORMATTED.put(pattern, new Formatted(from, to, day.zone, locale, text));
+        }
+        return text;
+    }
+
+    /**
+     * 停止后台线程，之后再使用时重新启动
+     */
+    public static synchronized void stop() {
+        Thread thread = ticker;
+        ticker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        FORMATTED.clear();
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+    }
+
+    private static synchronized long start() {
+        long millis = System.currentTimeMillis();
+        if (ticker == null) {
+            now = millis;
+            Thread thread = new Thread(CachedClock::tick, "efactory-clock");
+            thread.setDaemon(true);
+            ticker = thread;
+            thread.start();
+            log.debug("cached clock started, tick {}ns", tickNanos);
+        }
+        return millis;
+    }
+
+    private static void tick() {
+        Thread current = Thread.currentThread();
+        long lastSecond = Long.MIN_VALUE;
+        while (ticker == current) {
+            long millis = System.currentTimeMillis();
+            now = millis;
+            long second = millis / 1000L;
+            if (second != lastSecond) {
+                // 每秒检查一次默认时区是否变化，TimeZone.getDefault()每次都会克隆对象，不适合每次调用时检查
+                lastSecond = second;
+                Today day = today;
+                if (day != null && !day.zone.equals(ZoneId.systemDefault())) {
+                    today = null;
+                }
+            }
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    private static Today today(long millis) {
+        Today day = today;
+        if (day == null || millis < day.start || millis >= day.end) {
+            ZoneId zone = day == null ? ZoneId.systemDefault() : day.zone;
+            LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            day = new Today(zone, date, date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+            today = day;
+        }
+        return day;
+    }
+
+    private static boolean isDatePattern(String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) && DATE_LETTERS.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 默认时区的当天，[start, end)
+     */
+    private static final class Today {
+        private final ZoneId zone;
+        private final LocalDate date;
+        private final long start;
+        private final long end;
+
+        Today(ZoneId zone, LocalDate date, long start, long end) {
+            this.zone = zone;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * 某个模式的格式化结果，在[from, to)内有效
+     */
+    private static final class Formatted {
+        private final long from;
+        private final long to;
+        private final ZoneId zone;
+        private final Locale locale;
+        private final String text;
+
+        Formatted(long from, long to, ZoneId zone, Locale locale, String text) {
+            this.from = from;
+            this.to = to;
+            this.zone = zone;
+            this.locale = locale;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package vip.efactory.common.base.utils;
+
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Description:按时区预先计算的日历边界表，保存每一天开始的毫秒数，月、季度、年的开始都是其中的某一天，
+ * 周的开始是周一(同CommUtil.getCalendar)。边界查询直接按下标取值，"某个时间属于哪一天/周/月/季度/年"的查询
+ * 先按平均长度估算下标再最多调整一两次，都是O(1)，不需要创建和修改Calendar。
+ * <p>
+ * 每个年份的表在第一次使用时生成，生成后不再修改。覆盖的年份范围通过setYearRange设置，Spring容器中可以配置
+ * efactory.calendar.min-year及efactory.calendar.max-year(默认1970-2100，最小1900)，参见CalendarTableConfig；
+ * 超出范围时返回OUT_OF_RANGE，由调用方自行计算。
+ * 当天的开始时间落在夏令时切换的重叠中时，规则同java.util.Calendar，参见ZoneOffsetTable。
+ *
+ * @author dbdu
+ */
+public final class CalendarTable {
+    /**
+     * 时间或者年份超出表的范围时的返回值
+     */
+    public static final long OUT_OF_RANGE = Long.MIN_VALUE;
+    /**
+     * 早于该年份时java.util.TimeZone和java.time的时区数据不一致
+     */
+    public static final int MIN_SUPPORTED_YEAR = 1900;
+    public static final int MAX_SUPPORTED_YEAR = 9999;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+    /**
+     * 公历年的平均毫秒数
+     */
+    private static final long MILLIS_PER_YEAR = 31556952000L;
+
+    private static final ConcurrentMap<ZoneId, CalendarTable> TABLES = new ConcurrentHashMap<>();
+
+    private static volatile int minYear = 1970;
+    private static volatile int maxYear = 2100;
+
+    /**
+     * 日历边界的单位
+     */
+    public enum Unit {
+        DAY, WEEK, MONTH, QUARTER, YEAR
+    }
+
+    private final ZoneId zone;
+    private final int firstYear;
+    private final AtomicReferenceArray<YearTable> years;
+
+    private CalendarTable(ZoneId zone, int firstYear, int lastYear) {
+        this.zone = zone;
+        this.firstYear = firstYear;
+        this.years = new AtomicReferenceArray<>(lastYear - firstYear + 1);
+    }
+
+    /**
+     * 设置表覆盖的年份范围，已生成的表会被清除
+     */
+    public static synchronized void setYearRange(int min, int max) {
+        int first = Math.max(MIN_SUPPORTED_YEAR, Math.min(min, max));
+        int last = Math.min(MAX_SUPPORTED_YEAR, Math.max(min, max));
+        if (first != minYear || last != maxYear) {
+            minYear = first;
+            maxYear = last;
+            TABLES.clear();
+        }
+    }
+
+    public static int getMinYear() {
+        return minYear;
+    }
+
+    public static int getMaxYear() {
+        return maxYear;
+    }
+
+    /**
+     * 获取时区的日历边界表
+     */
+    public static CalendarTable of(ZoneId zone) {
+        CalendarTable table = TABLES.get(zone);
+        if (table == null) {
+            table = TABLES.computeIfAbsent(zone, z -> new CalendarTable(z, minYear, maxYear));
+        }
+        return table;
+    }
+
+    /**
+     * 获取默认时区的日历边界表，默认时区取自CachedClock(每秒检查一次是否变化)
+     */
+    public static CalendarTable ofDefault() {
+        return of(CachedClock.zone());
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 某一天开始的毫秒数
+     *
+     * @param month 1-12
+     * @param day   1-当月的天数
+     */
+    public long dayStart(int year, int month, int day) {
+        YearTable table = year(year);
+        if (table == null || month < 1 || month > 12 || day < 1 || day > DateTimeParser.lengthOfMonth(year, month)) {
+            return OUT_OF_RANGE;
+        }
+        return table.dayStarts[table.monthOffset(month) + day - 1];
+    }
+
+    /**
+     * 某月第一天开始的毫秒数，month超出1-12时顺延到前后的年份，例如(2016, 0)是2015年12月
+     */
+    public long monthStart(int year, int month) {
+        int months = year * 12 + month - 1;
+        int y = Math.floorDiv(months, 12);
+        YearTable table = year(y);
+        if (table == null) {
+            return OUT_OF_RANGE;
+        }
+        return table.dayStarts[table.monthOffset(Math.floorMod(months, 12) + 1)];
+    }
+
+    /**
+     * 某季度第一天开始的毫秒数
+     *
+     * @param quarter 1-4
+     */
+    public long quarterStart(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            return OUT_OF_RANGE;
+        }
+        return monthStart(year, quarter * 3 - 2);
+    }
+
+    /**
+     * 某年第一天开始的毫秒数
+     */
+    public long yearStart(int year) {
+        YearTable table = year(year);
+        return table == null ? OUT_OF_RANGE : table.dayStarts[0];
+    }
+
+    /**
+     * 时间所在的天、周、月、季度或者年的开始毫秒数
+     */
+    public long start(long millis, Unit unit) {
+        return shift(millis, unit, 0);
+    }
+
+    /**
+     * 时间所在的天、周、月、季度或者年的下一个的开始毫秒数，即当前这一个的结束(不包含)
+     */
+    public long next(long millis, Unit unit) {
+        return shift(millis, unit, 1);
+    }
+
+    /**
+     * 时间所在的天、周、月、季度或者年前后第amount个的开始毫秒数，例如shift(now, MONTH, -1)是上个月的开始
+     */
+    public long shift(long millis, Unit unit, int amount) {
+        YearTable table = locate(millis);
+        if (table == null) {
+            return OUT_OF_RANGE;
+        }
+        int index = table.dayIndex(millis);
+        switch (unit) {
+            case DAY:
+                return dayStartOfEpochDay(table.firstEpochDay + index + amount);
+            case WEEK:
+                long monday = table.firstEpochDay + index - Math.floorMod(table.firstEpochDay + index + 3, 7);
+                return dayStartOfEpochDay(monday + 7L * amount);
+            case MONTH:
+                return monthStart(table.year, table.monthOf(index) + amount);
+            case QUARTER:
+                return monthStart(table.year, (table.monthOf(index) - 1) / 3 * 3 + 1 + 3 * amount);
+            default:
+                return yearStart(table.year + amount);
+        }
+    }
+
+    /**
+     * 时间所在的年份，超出范围时返回-1
+     */
+    public int yearOf(long millis) {
+        YearTable table = locate(millis);
+        return table == null ? -1 : table.year;
+    }
+
+    private long dayStartOfEpochDay(long epochDay) {
+        int year = (int) Math.floorDiv(epochDay * 400, 146097L) + 1970;
+        YearTable table = year(year);
+        if (table != null && epochDay < table.firstEpochDay) {
+            table = year(year - 1);
+        } else if (table != null && epochDay >= table.firstEpochDay + table.length()) {
+            table = year(year + 1);
+        }
+        if (table == null) {
+            return OUT_OF_RANGE;
+        }
+        return table.dayStarts[(int) (epochDay - table.firstEpochDay)];
+    }
+
+    /**
+     * 按平均年长估算时间所在的年份，再根据相邻年份的开始时间调整
+     */
+    private YearTable locate(long millis) {
+        int year = (int) Math.max(Integer.MIN_VALUE + 1, Math.min(Integer.MAX_VALUE - 1, Math.floorDiv(millis, MILLIS_PER_YEAR) + 1970));
+        YearTable table = year(year);
+        if (table != null && millis < table.dayStarts[0]) {
+            table = year(year - 1);
+        } else if (table != null && millis >= table.dayStarts[table.length()]) {
+            table = year(year + 1);
+        } else if (table == null) {
+            // 估算的年份刚好在范围之外，实际年份可能是范围的第一年或者最后一年
+            YearTable neighbor = year(year + 1);
+            if (neighbor == null || millis < neighbor.dayStarts[0]) {
+                neighbor = year(year - 1);
+            }
+            table = neighbor;
+        }
+        if (table == null || millis < table.dayStarts[0] || millis >= table.dayStarts[table.length()]) {
+            return null;
+        }
+        return table;
+    }
+
+    private YearTable year(int year) {
+        int index = year - firstYear;
+        if (index < 0 || index >= years.length()) {
+            return null;
+        }
+        YearTable table = years.get(index);
+        if (table == null) {
+            table = new YearTable(year, ZoneOffsetTable.of(zone));
+            if (!years.compareAndSet(index, null, table)) {
+                table = years.get(index);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 一年中每一天开始的毫秒数，dayStarts的最后一个元素是下一年的开始
+     */
+    private static final class YearTable {
+        private final int year;
+        private final boolean leap;
+        private final long firstEpochDay;
+        private final long[] dayStarts;
+
+        YearTable(int year, ZoneOffsetTable offsets) {
+            this.year = year;
+            this.leap = DateTimeParser.isLeapYear(year);
+            this.firstEpochDay = DateTimeParser.epochDay(year, 1, 1);
+            int length = leap ? 366 : 365;
+            this.dayStarts = new long[length + 1];
+            for (int i = 0; i <= length; i++) {
+                dayStarts[i] = offsets.toEpochSecond((firstEpochDay + i) * 86400L) * 1000L;
+            }
+        }
+
+        int length() {
+            return dayStarts.length - 1;
+        }
+
+        /**
+         * 时间在本年中是第几天(从0开始)，调用方保证时间在本年中
+         */
+        int dayIndex(long millis) {
+            int index = (int) ((millis - dayStarts[0]) / MILLIS_PER_DAY);
+            if (index >= length()) {
+                index = length() - 1;
+            }
+            while (dayStarts[index] > millis) {
+                index--;
+            }
+            while (dayStarts[index + 1] <= millis) {
+                index++;
+            }
+            return index;
+        }
+
+        /**
+         * 某月第一天在本年中是第几天(从0开始)
+         */
+        int monthOffset(int month) {
+            return MONTH_OFFSETS[leap ? 1 : 0][month - 1];
+        }
+
+        /**
+         * 本年的第index天(从0开始)所在的月份
+         */
+        int monthOf(int index) {
+            return MONTH_OF_DAY[leap ? 1 : 0][index];
+        }
+    }
+
+    private static final int[][] MONTH_OFFSETS = new int[2][12];
+    private static final byte[][] MONTH_OF_DAY = new byte[2][366];
+
+    static {
+        for (int leap = 0; leap < 2; leap++) {
+            // 2001年是平年，2000年是闰年
+            int year = leap == 1 ? 2000 : 2001;
+            int offset = 0;
+            for (int month = 1; month <= 12; month++) {
+                MONTH_OFFSETS[leap][month - 1] = offset;
+                int length = DateTimeParser.lengthOfMonth(year, month);
+                for (int day = 0; day < length; day++) {
+                    MONTH_OF_DAY[leap][offset + day] = (byte) month;
+                }
+                offset += length;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package vip.efactory.common.base.utils;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Description:绑定日历边界表CalendarTable覆盖的年份范围：efactory.calendar.min-year、efactory.calendar.max-year，
+ * 两个年份都绑定后一次性设置，结果和setter的调用顺序无关。
+ *
+ * @author dbdu
+ */
+@Component
+public class CalendarTableConfig implements InitializingBean {
+    private int minYear = 1970;
+    private int maxYear = 2100;
+
+    @Value("${efactory.calendar.min-year:1970}")
+    public void setMinYear(int minYear) {
+        this.minYear = minYear;
+    }
+
+    @Value("${efactory.calendar.max-year:2100}")
+    public void setMaxYear(int maxYear) {
+        this.maxYear = maxYear;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        CalendarTable.setYearRange(minYear, maxYear);
+    }
+}
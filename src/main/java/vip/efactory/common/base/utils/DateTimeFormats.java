@@ -0,0 +1,233 @@
+package vip.efactory.common.base.utils;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:不可变的、预编译的日期格式化器注册表，DateTimeUtil的格式化都经过这里。
+ * DateTimeFormatter是线程安全的，不需要ThreadLocal，也不会像共享的SimpleDateFormat那样在并发时输出错乱。
+ * <p>
+ * 模式使用SimpleDateFormat的写法，编译时转换为等价的DateTimeFormatter，输出和SimpleDateFormat相同：
+ * 例如S表示毫秒数(不是秒的小数部分)。含有两者语义不同的字母(例如u、w、z、X)、DateTimeFormatter的保留字符、
+ * DateTimeFormatter不接受的字母个数(例如HHH)，或者5个及以上的文本字母(MMMMM、EEEEE在DateTimeFormatter中是缩写形式)时，
+ * 退回到每次创建SimpleDateFormat。1900年之前的时间同样退回SimpleDateFormat(1582-10-15之前是儒略历，
+ * DateTimeFormatter是前推的公历)，同DateTimeParser；9999年之后的时间也退回(DateTimeFormatter的年份带有+号)。
+ * 按模式缓存(最多MAX_PATTERNS个)，默认区域(Locale)变化后重新编译。
+ * 只由数字字段组成的模式(例如yyyy-MM-dd HH:mm:ss)格式化毫秒数时使用EpochFormatter查表输出。
+ *
+ * @author dbdu
+ */
+public final class DateTimeFormats {
+    /**
+     * 可以直接转换的模式字母，其他字母的含义在两者之间有差异
+     */
+    private static final String SAFE_LETTERS = "GyMdHhmsSEakK";
+    /**
+     * DateTimeFormatter模式中有特殊含义而SimpleDateFormat中是普通字符的字符
+     */
+    private static final String RESERVED_CHARS = "[]{}#";
+    /**
+     * 文本字母，5个及以上时两者的输出不同：SimpleDateFormat是全称，DateTimeFormatter是缩写
+     */
+    private static final String TEXT_LETTERS = "GMEa";
+    /**
+     * 早于该时间时退回SimpleDateFormat：1900-01-02T00:00Z，任何时区都已经是1900年(DateTimeParser.MIN_FAST_YEAR)
+     */
+    static final long MIN_FAST_MILLIS = DateTimeParser.epochDay(DateTimeParser.MIN_FAST_YEAR, 1, 2) * 86400000L;
+    /**
+     * 不早于该时间时退回SimpleDateFormat：9999-12-31T00:00Z，任何时区都还是9999年
+     */
+    static final long MAX_FAST_MILLIS = DateTimeParser.epochDay(9999, 12, 31) * 86400000L;
+    /**
+     * 最多缓存的模式数量，超出后新的模式每次重新编译，不再缓存
+     */
+    private static final int MAX_PATTERNS = 256;
+
+    private static final ConcurrentMap<String, Compiled> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        // 预编译DateTimeUtil中命名的格式
+        String[] patterns = {DateTimeUtil.DATE_FORMAT_yyyy_MM_dd, DateTimeUtil.DATE_FORMAT_yyyyMMdd, DateTimeUtil.DATE_FORMAT_yyyyMM,
+                DateTimeUtil.DATE_FORMAR_yyyyMMddHHmmss, DateTimeUtil.DATE_FORMAT_yyyy_MM_dd_HH_MM_SS, DateTimeUtil.DATE_STARNDARD_FORMAT,
+                DateTimeUtil.DATE_FORMAT_HH_MM_SS, DateTimeUtil.DATE_FORMAT_MM_dd_HH_MM_SS, DateTimeUtil.YEAR_MONTH_DAY,
+                DateTimeUtil.HOUR_MINUTE, "MM/dd/yyyy HH:mm:ss", "MMddHHmmyyyy.ss", "yyyyMMddHHmmssS", "yyyyMMddHHmmssSSS",
+                "yyyy-MM-dd HH:mm", "yyyy/MM/dd HH:mm", "yyyyMMdd HHmmss", "yyyy-MM"};
+        for (String pattern : patterns) {
+            compiled(pattern);
+        }
+    }
+
+    private DateTimeFormats() {
+    }
+
+    /**
+     * 获取SimpleDateFormat写法的模式对应的DateTimeFormatter，使用默认区域(Locale)，没有时区
+     *
+     * @param pattern SimpleDateFormat写法的模式
+     * @return 线程安全的格式化器
+     * @throws IllegalArgumentException 模式无法等价地转换为DateTimeFormatter
+     */
+    public static DateTimeFormatter of(String pattern) {
+        Compiled compiled = compiled(pattern);
+        if (compiled.formatter == null) {
+            throw new IllegalArgumentException("pattern [" + pattern + "] can not be converted to DateTimeFormatter");
+        }
+        return compiled.formatter;
+    }
+
+    /**
+     * 使用默认时区格式化毫秒数
+     */
+    public static String format(long millis, String pattern) {
+        return format(millis, pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 使用指定时区格式化毫秒数
+     */
+    public static String format(long millis, String pattern, ZoneId zone) {
+        Compiled compiled = compiled(pattern);
+        if (compiled.epochFormatter != null) {
+            // EpochFormatter在年份超出范围时调用formatWithoutEpoch
+            return compiled.epochFormatter.format(millis, zone);
+        }
+        return format(compiled, millis, pattern, zone);
+    }
+
+    /**
+     * 不经过EpochFormatter格式化，EpochFormatter在年份超出范围时使用
+     */
+    static String formatWithoutEpoch(long millis, String pattern, ZoneId zone) {
+        return format(compiled(pattern), millis, pattern, zone);
+    }
+
+    private static String format(Compiled compiled, long millis, String pattern, ZoneId zone) {
+        if (millis >= MIN_FAST_MILLIS && millis < MAX_FAST_MILLIS && compiled.formatter != null) {
+            return compiled.formatter.format(Instant.ofEpochMilli(millis).atZone(zone));
+        }
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone(zone));
+        return format.format(new Date(millis));
+    }
+
+    /**
+     * 使用默认时区格式化日期
+     */
+    public static String format(Date date, String pattern) {
+        return format(date.getTime(), pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 格式化java8的日期时间对象，例如LocalDate、LocalDateTime
+     */
+    public static String format(TemporalAccessor temporal, String pattern) {
+        return of(pattern).format(temporal);
+    }
+
+    private static Compiled compiled(String pattern) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Compiled compiled = CACHE.get(pattern);
+        if (compiled == null || !compiled.locale.equals(locale)) {
+            compiled = new Compiled(compile(pattern, locale), EpochFormatter.of(pattern), locale);
+            if (CACHE.size() < MAX_PATTERNS || CACHE.containsKey(pattern)) {
+                CACHE.put(pattern, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * 把SimpleDateFormat的模式转换为DateTimeFormatter，无法等价转换时返回null
+     */
+    static DateTimeFormatter compile(String pattern, Locale locale) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        int length = pattern.length();
+        int i = 0;
+        while (i < length) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                // 引号内是原样输出的文本，两个连续的引号表示一个引号，两者的规则相同
+                int end = i + 1;
+                StringBuilder literal = new StringBuilder();
+                while (end < length) {
+                    char q = pattern.charAt(end);
+                    if (q == '\'') {
+                        if (end + 1 < length && pattern.charAt(end + 1) == '\'') {
+                            literal.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(q);
+                    end++;
+                }
+                if (end >= length) {
+                    return null;
+                }
+                builder.appendLiteral(end == i + 1 ? "'" : literal.toString());
+                i = end + 1;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (SAFE_LETTERS.indexOf(c) < 0) {
+                    return null;
+                }
+                int end = i + 1;
+                while (end < length && pattern.charAt(end) == c) {
+                    end++;
+                }
+                int count = end - i;
+                if (count >= 5 && TEXT_LETTERS.indexOf(c) >= 0) {
+                    return null;
+                }
+                if (c == 'S') {
+                    // SimpleDateFormat的S是毫秒数，不足count位时补零，超过时原样输出
+                    builder.appendValue(ChronoField.MILLI_OF_SECOND, count, Math.max(count, 3), SignStyle.NOT_NEGATIVE);
+                } else {
+                    try {
+                        builder.appendPattern(pattern.substring(i, end));
+                    } catch (IllegalArgumentException e) {
+                        // 字母个数超出DateTimeFormatter的限制，SimpleDateFormat可以接受
+                        return null;
+                    }
+                }
+                i = end;
+            } else {
+                if (RESERVED_CHARS.indexOf(c) >= 0) {
+                    return null;
+                }
+                builder.appendLiteral(c);
+                i++;
+            }
+        }
+        return builder.toFormatter(locale);
+    }
+
+    private static final class Compiled {
+        /**
+         * 等价的DateTimeFormatter，无法转换时为null
+         */
+        private final DateTimeFormatter formatter;
+        /**
+         * 只由数字字段组成的模式的快速格式化器，其他模式为null
+         */
+        private final EpochFormatter epochFormatter;
+        private final Locale locale;
+
+        Compiled(DateTimeFormatter formatter, EpochFormatter epochFormatter, Locale locale) {
+            this.formatter = formatter;
+            this.epochFormatter = epochFormatter;
+            this.locale = locale;
+        }
+    }
+}
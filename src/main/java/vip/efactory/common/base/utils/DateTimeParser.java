@@ -0,0 +1,308 @@
+package vip.efactory.common.base.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Description:日期时间字符串的字符级解析器，一次扫描直接得到毫秒数或者java8的日期时间对象，
+ * 不需要先猜测格式再创建SimpleDateFormat/DateTimeFormatter。支持的格式同DateTimeUtil.getDateFromString:
+ * "yyyy/MM/dd"及"yyyy/MM/dd HH:mm"及"yyyy/MM/dd HH:mm:ss"(分隔符也可以是-或者_，前后必须一致)
+ * "yyyyMMdd"及"yyyyMMdd HH:mm"及"yyyyMMdd HH:mm:ss"
+ * "yyyyMMdd HHmmss"及"yyyyMMdd HHmm"
+ * "HH:mm"及"HH:mm:ss"
+ * ISO_LOCAL_DATE_TIME,例如:2011-12-03T10:15:30
+ * <p>
+ * 严格校验每个字段：月份1-12，日期不超过当月的天数，小时0-23，分、秒0-59，不符合时解析失败，
+ * 不会像宽松模式的SimpleDateFormat那样把2月30日顺延为3月2日。只有时分秒的字符串按1970-01-01处理。
+ *
+ * @author dbdu
+ */
+public final class DateTimeParser {
+    /**
+     * parseMillis解析失败时的返回值
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long SECONDS_PER_DAY = 86400L;
+    /**
+     * 早于该年份时java.util.TimeZone和java.time的时区数据不一致，且GregorianCalendar在1582年以前使用儒略历
+     */
+    static final int MIN_FAST_YEAR = 1900;
+
+    /**
+     * 解析结果打包在一个long中，避免创建中间对象：秒6位、分6位、时5位、日5位、月4位、年14位，及标志位
+     */
+    private static final int MINUTE_SHIFT = 6;
+    private static final int HOUR_SHIFT = 12;
+    private static final int DAY_SHIFT = 17;
+    private static final int MONTH_SHIFT = 22;
+    private static final int YEAR_SHIFT = 26;
+    private static final long HAS_DATE = 1L << 40;
+    private static final long HAS_TIME = 1L << 41;
+    private static final long FAILED = -1L;
+
+    private DateTimeParser() {
+    }
+
+    /**
+     * 解析为默认时区的毫秒数
+     *
+     * @param text 日期时间字符串
+     * @return 毫秒数，解析失败时返回INVALID
+     */
+    public static long parseMillis(CharSequence text) {
+        return parseMillis(text, ZoneId.systemDefault());
+    }
+
+    /**
+     * 解析为指定时区的毫秒数，结果和SimpleDateFormat相同：本地时间落在夏令时切换的空档或者重叠中时规则同java.util.Calendar，
+     * 1900年以前(儒略历、地方平时)及ZoneOffsetTable.MAX_YEAR以后的日期使用GregorianCalendar计算
+     *
+     * @param text 日期时间字符串
+     * @param zone 时区
+     * @return 毫秒数，解析失败时返回INVALID
+     */
+    public static long parseMillis(CharSequence text, ZoneId zone) {
+        long fields = parse(text);
+        if (fields == FAILED) {
+            return INVALID;
+        }
+        if ((fields & HAS_DATE) == 0) {
+            return ZoneOffsetTable.of(zone).toEpochSecond(secondOfDay(fields)) * 1000L;
+        }
+        int year = year(fields);
+        if (year < MIN_FAST_YEAR || year > ZoneOffsetTable.MAX_YEAR) {
+            GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone(zone));
+            calendar.clear();
+            calendar.set(year, month(fields) - 1, day(fields), hour(fields), minute(fields), second(fields));
+            return calendar.getTimeInMillis();
+        }
+        long localSecond = epochDay(year, month(fields), day(fields)) * SECONDS_PER_DAY + secondOfDay(fields);
+        return ZoneOffsetTable.of(zone).toEpochSecond(localSecond) * 1000L;
+    }
+
+    /**
+     * 解析同时含有日期和时间的字符串
+     *
+     * @return 解析失败或者缺少日期、时间时返回null
+     */
+    public static LocalDateTime parseLocalDateTime(CharSequence text) {
+        long fields = parse(text);
+        if (fields == FAILED || (fields & HAS_DATE) == 0 || (fields & HAS_TIME) == 0) {
+            return null;
+        }
+        return LocalDateTime.of(year(fields), month(fields), day(fields), hour(fields), minute(fields), second(fields));
+    }
+
+    /**
+     * 解析含有日期的字符串，时间部分(如果有)被忽略
+     *
+     * @return 解析失败或者缺少日期时返回null
+     */
+    public static LocalDate parseLocalDate(CharSequence text) {
+        long fields = parse(text);
+        if (fields == FAILED || (fields & HAS_DATE) == 0) {
+            return null;
+        }
+        return LocalDate.of(year(fields), month(fields), day(fields));
+    }
+
+    /**
+     * 解析含有时间的字符串，日期部分(如果有)被忽略
+     *
+     * @return 解析失败或者缺少时间时返回null
+     */
+    public static LocalTime parseLocalTime(CharSequence text) {
+        long fields = parse(text);
+        if (fields == FAILED || (fields & HAS_TIME) == 0) {
+            return null;
+        }
+        return LocalTime.of(hour(fields), minute(fields), second(fields));
+    }
+
+    /**
+     * 按长度及分隔符识别格式并解析各个字段，失败时返回FAILED
+     */
+    static long parse(CharSequence text) {
+        if (text == null) {
+            return FAILED;
+        }
+        switch (text.length()) {
+            case 19:
+                // yyyy?MM?dd HH:mm:ss 或者 ISO的yyyy-MM-ddTHH:mm:ss
+                return combine(separatedDate(text), text.charAt(10) == ' ' || (text.charAt(10) == 'T' && text.charAt(4) == '-')
+                        ? colonTime(text, 11, true) : FAILED);
+            case 17:
+                return combine(compactDate(text), text.charAt(8) == ' ' ? colonTime(text, 9, true) : FAILED);
+            case 16:
+                return combine(separatedDate(text), text.charAt(10) == ' ' ? colonTime(text, 11, false) : FAILED);
+            case 15:
+                return combine(compactDate(text), text.charAt(8) == ' ' ? compactTime(text, 9, true) : FAILED);
+            case 14:
+                return combine(compactDate(text), text.charAt(8) == ' ' ? colonTime(text, 9, false) : FAILED);
+            case 13:
+                return combine(compactDate(text), text.charAt(8) == ' ' ? compactTime(text, 9, false) : FAILED);
+            case 10:
+                return separatedDate(text);
+            case 8:
+                return text.charAt(2) == ':' ? colonTime(text, 0, true) : compactDate(text);
+            case 5:
+                return colonTime(text, 0, false);
+            default:
+                return FAILED;
+        }
+    }
+
+    private static long combine(long date, long time) {
+        return date == FAILED || time == FAILED ? FAILED : date | time;
+    }
+
+    /**
+     * yyyy?MM?dd，分隔符是/、-或者_，两个分隔符必须相同
+     */
+    private static long separatedDate(CharSequence text) {
+        char separator = text.charAt(4);
+        if ((separator != '/' && separator != '-' && separator != '_') || text.charAt(7) != separator) {
+            return FAILED;
+        }
+        return date(digits4(text, 0), digits2(text, 5), digits2(text, 8));
+    }
+
+    /**
+     * yyyyMMdd
+     */
+    private static long compactDate(CharSequence text) {
+        return date(digits4(text, 0), digits2(text, 4), digits2(text, 6));
+    }
+
+    private static long date(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return FAILED;
+        }
+        return HAS_DATE | ((long) year << YEAR_SHIFT) | ((long) month << MONTH_SHIFT) | ((long) day << DAY_SHIFT);
+    }
+
+    /**
+     * HH:mm:ss 或者 HH:mm
+     */
+    private static long colonTime(CharSequence text, int offset, boolean withSecond) {
+        if (text.charAt(offset + 2) != ':') {
+            return FAILED;
+        }
+        int second = 0;
+        if (withSecond) {
+            if (text.charAt(offset + 5) != ':') {
+                return FAILED;
+            }
+            second = digits2(text, offset + 6);
+        }
+        return time(digits2(text, offset), digits2(text, offset + 3), second);
+    }
+
+    /**
+     * HHmmss 或者 HHmm
+     */
+    private static long compactTime(CharSequence text, int offset, boolean withSecond) {
+        return time(digits2(text, offset), digits2(text, offset + 2), withSecond ? digits2(text, offset + 4) : 0);
+    }
+
+    private static long time(int hour, int minute, int second) {
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return FAILED;
+        }
+        return HAS_TIME | ((long) hour << HOUR_SHIFT) | ((long) minute << MINUTE_SHIFT) | second;
+    }
+
+    /**
+     * 两位数字，含有非数字字符时返回-1
+     */
+    private static int digits2(CharSequence text, int offset) {
+        int d1 = text.charAt(offset) - '0';
+        int d2 = text.charAt(offset + 1) - '0';
+        if (d1 < 0 || d1 > 9 || d2 < 0 || d2 > 9) {
+            return -1;
+        }
+        return d1 * 10 + d2;
+    }
+
+    /**
+     * 四位数字，含有非数字字符时返回-1
+     */
+    private static int digits4(CharSequence text, int offset) {
+        int high = digits2(text, offset);
+        int low = digits2(text, offset + 2);
+        return high < 0 || low < 0 ? -1 : high * 100 + low;
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 距1970-01-01的天数，算法同LocalDate.toEpochDay
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - 719528L;
+    }
+
+    private static int year(long fields) {
+        return (int) (fields >>> YEAR_SHIFT) & 0x3FFF;
+    }
+
+    private static int month(long fields) {
+        return (int) (fields >>> MONTH_SHIFT) & 0xF;
+    }
+
+    private static int day(long fields) {
+        return (int) (fields >>> DAY_SHIFT) & 0x1F;
+    }
+
+    private static int hour(long fields) {
+        return (int) (fields >>> HOUR_SHIFT) & 0x1F;
+    }
+
+    private static int minute(long fields) {
+        return (int) (fields >>> MINUTE_SHIFT) & 0x3F;
+    }
+
+    private static int second(long fields) {
+        return (int) fields & 0x3F;
+    }
+
+    private static long secondOfDay(long fields) {
+        return hour(fields) * 3600L + minute(fields) * 60L + second(fields);
+    }
+}
@@ -29,10 +29,22 @@ public abstract class DateTimeUtil {
     public final static String YEAR_MONTH_DAY = "yyyy-MM-dd";
     public final static String HOUR_MINUTE = "HH:mm";
 
+    /**
+     * @deprecated SimpleDateFormat不是线程安全的，多线程共享会输出错乱的结果，本类已不再使用，请使用DateTimeFormats
+     */
+    @Deprecated
     public static SimpleDateFormat formatterYMDHMS = new SimpleDateFormat(DATE_STARNDARD_FORMAT);
+    /**
+     * @deprecated 同formatterYMDHMS，请使用DateTimeFormats
+     */
+    @Deprecated
     public static SimpleDateFormat formatterYMD = new SimpleDateFormat(YEAR_MONTH_DAY);
+    /**
+     * @deprecated 同formatterYMDHMS，请使用DateTimeFormats
+     */
+    @Deprecated
     public static SimpleDateFormat formatterHM = new SimpleDateFormat(HOUR_MINUTE);
-    public static DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(YEAR_MONTH_DAY);
+    public static DateTimeFormatter dateFormatter = DateTimeFormats.of(YEAR_MONTH_DAY);
 
     private DateTimeUtil() {
         // do nothing
@@ -49,24 +61,36 @@ public abstract class DateTimeUtil {
     public static final String SDF8 = "sdf8";
     public static final String SDF9 = "sdf9";
     public static final String SDF10 = "sdf10";
+    private static final String SDF_SLASH_DATE = "sdfSlashDate";
+    private static final String SDF_MONTH = "sdfMonth";
+
+    /**
+     * getDateString的type对应的格式
+     */
+    private static final String[] TYPE_PATTERNS = {DATE_STARNDARD_FORMAT, DATE_FORMAT_yyyy_MM_dd_HH_MM_SS, "MM/dd/yyyy HH:mm:ss",
+            "MMddHHmmyyyy.ss", DATE_FORMAT_yyyyMMdd, DATE_FORMAR_yyyyMMddHHmmss, YEAR_MONTH_DAY, "yyyyMMddHHmmssS", "yyyy-MM-dd HH:mm"};
+
     /**
      * use threadlocal of DateFormat to avoid date format exception when used in multithread environment.
+     * 只用于解析(SimpleDateFormat的宽松解析规则)，格式化使用DateTimeFormats。
      */
     private static ThreadLocal<Map<String, DateFormat>> threadLocal = new ThreadLocal<Map<String, DateFormat>>() {
         @Override
         protected Map<String, DateFormat> initialValue() {
             Map<String, DateFormat> map = new HashMap<String, DateFormat>();
-            map.put(SDF, formatterYMDHMS);
+            map.put(SDF, new SimpleDateFormat(DATE_STARNDARD_FORMAT));
             map.put(SDF1, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
             map.put(SDF2, new SimpleDateFormat("yyyy/MM/dd HH:mm:ss"));
             map.put(SDF3, new SimpleDateFormat("MM/dd/yyyy HH:mm:ss"));
             map.put(SDF4, new SimpleDateFormat("MMddHHmmyyyy.ss"));
             map.put(SDF5, new SimpleDateFormat("yyyyMMdd"));
             map.put(SDF6, new SimpleDateFormat("yyyyMMddHHmmss"));
-            map.put(SDF7, formatterYMD);
+            map.put(SDF7, new SimpleDateFormat(YEAR_MONTH_DAY));
             map.put(SDF8, new SimpleDateFormat("yyyyMMddHHmmssS"));
             map.put(SDF9, new SimpleDateFormat("yyyy-MM-dd HH:mm"));
             map.put(SDF10, new SimpleDateFormat("yyyy/MM/dd HH:mm"));
+            map.put(SDF_SLASH_DATE, new SimpleDateFormat(DATE_FORMAT_yyyy_MM_dd));
+            map.put(SDF_MONTH, new SimpleDateFormat("yyyy-MM"));
             return map;
         }
     };
@@ -79,7 +103,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static String getCurrentDate() {
-        return getCurrentDate(TimeZone.getDefault());
+        return CachedClock.format(DATE_FORMAT_yyyy_MM_dd);
     }
 
     /**
@@ -90,7 +114,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static Integer getCurrentYear() {
-        return Calendar.getInstance().get(Calendar.YEAR);
+        return CachedClock.today().getYear();
     }
 
     public static String getCurrentDate(TimeZone timeZone) {
@@ -98,17 +122,15 @@ public abstract class DateTimeUtil {
     }
 
     public static String getCurrentDate(String pattern) {
-        return getCurrentDate(pattern, TimeZone.getDefault());
+        return CachedClock.format(pattern);
     }
 
     public static String getCurrentDate(String pattern, TimeZone timeZone) {
-        return getFormatDateTime(new Date(), pattern, timeZone);
+        return DateTimeFormats.format(CachedClock.currentTimeMillis(), pattern, timeZone.toZoneId());
     }
 
     public static String getFormatDateTime(Date dateValue, String strFormat, TimeZone timeZone) {
-        DateFormat formatter = new SimpleDateFormat(strFormat);
-        formatter.setTimeZone(timeZone);
-        return formatter.format(dateValue);
+        return DateTimeFormats.format(dateValue.getTime(), strFormat, timeZone.toZoneId());
     }
 
     public static String getDateAfter(long inter, String format) {
@@ -139,6 +161,10 @@ public abstract class DateTimeUtil {
      * Return the start time of previous month. For example, current date is 2016/03/29: will return long value of 2016/02/01 00:00:00
      */
     public static long getPreviousMonthStart() {
+        long start = CalendarTable.ofDefault().shift(CachedClock.currentTimeMillis(), CalendarTable.Unit.MONTH, -1);
+        if (start != CalendarTable.OUT_OF_RANGE) {
+            return start;
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.MONTH, -1);
         calendar.set(Calendar.DATE, 1);
@@ -150,6 +176,15 @@ public abstract class DateTimeUtil {
      * Return the end time of previous month. For example, current date is 2016/03/29: will return long value of 2016/02/29 00:00:00
      */
     public static long getPreviousMonthEnd() {
+        CalendarTable table = CalendarTable.ofDefault();
+        long monthStart = table.start(CachedClock.currentTimeMillis(), CalendarTable.Unit.MONTH);
+        if (monthStart != CalendarTable.OUT_OF_RANGE) {
+            // 上个月最后一天的开始
+            long end = table.start(monthStart - 1, CalendarTable.Unit.DAY);
+            if (end != CalendarTable.OUT_OF_RANGE) {
+                return end;
+            }
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.MONTH, -1);
         calendar.set(Calendar.DATE, 1);
@@ -162,6 +197,10 @@ public abstract class DateTimeUtil {
      * Return the start time of current month. For example, current date is 2016/03/29: will return long value of 2016/03/01 00:00:00
      */
     public static long getCurrentMonthStart() {
+        long start = CalendarTable.ofDefault().start(CachedClock.currentTimeMillis(), CalendarTable.Unit.MONTH);
+        if (start != CalendarTable.OUT_OF_RANGE) {
+            return start;
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.set(Calendar.DATE, 1);
         String startTimeStr = getFormatDateTime(calendar.getTime(), DATE_FORMAT_yyyy_MM_dd, TimeZone.getDefault());
@@ -172,6 +211,12 @@ public abstract class DateTimeUtil {
      * Get the input year start time. For example, the input is 2016: will return long value of 2016/01/01 00:00:00
      */
     public static long getSpecificYearStart(Integer s_year) {
+        if (s_year != null) {
+            long start = CalendarTable.ofDefault().yearStart(s_year);
+            if (start != CalendarTable.OUT_OF_RANGE) {
+                return start;
+            }
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.setTimeInMillis(changeDateStringToLong(s_year + "/1/1"));
         String startTimeStr = getFormatDateTime(calendar.getTime(), DATE_FORMAT_yyyy_MM_dd, TimeZone.getDefault());
@@ -183,6 +228,12 @@ public abstract class DateTimeUtil {
      * 2016: will return long value of 2017/01/01 00:00:00
      */
     public static long getSpecificNextYearStart(Integer s_year) {
+        if (s_year != null) {
+            long start = CalendarTable.ofDefault().yearStart(s_year + 1);
+            if (start != CalendarTable.OUT_OF_RANGE) {
+                return start;
+            }
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.setTimeInMillis(changeDateStringToLong(++s_year + "/1/1"));
         String startTimeStr = getFormatDateTime(calendar.getTime(), DATE_FORMAT_yyyy_MM_dd, TimeZone.getDefault());
@@ -211,7 +262,14 @@ public abstract class DateTimeUtil {
     }
 
     public static long changeDateStringToLong(String s_date) {
-        DateFormat format = new SimpleDateFormat(DATE_FORMAT_yyyy_MM_dd);
+        if (s_date != null && s_date.length() == 10 && s_date.charAt(4) == '/') {
+            // 标准格式直接解析，其他的(例如2016/1/1)仍使用宽松的SimpleDateFormat
+            long millis = DateTimeParser.parseMillis(s_date);
+            if (millis != DateTimeParser.INVALID) {
+                return millis;
+            }
+        }
+        DateFormat format = threadLocal.get().get(SDF_SLASH_DATE);
         Date date;
         long l = System.currentTimeMillis();
         try {
@@ -233,6 +291,7 @@ public abstract class DateTimeUtil {
      * "yyyyMMdd"及"yyyyMMdd HH:mm"及"yyyyMMdd HH:mm:ss"
      * "yyyyMMdd HHmmss"及"yyyyMMdd HHmm"
      * "HH:mm"及"HH:mm:ss"
+     * 各个字段严格校验，例如2月30日是无效的日期，无法解析时返回null
      * dbdu at 2019-0707
      *
      * @param dateString
@@ -240,89 +299,17 @@ public abstract class DateTimeUtil {
      */
     public static Date getDateFromString(String dateString) {
         if (!CommUtil.isEmptyString(dateString)) {
-            String pattern = "";
-            pattern = getPatternFromDateString(dateString);
-            assert pattern != null;
-            DateFormat df = new SimpleDateFormat(pattern);
-            Date date;
-            try {
-                date = df.parse(dateString);
-            } catch (ParseException e) {
-                log.warn(e.getMessage());
+            // 字符级解析，不需要先猜测格式再创建SimpleDateFormat，参见DateTimeParser
+            long millis = DateTimeParser.parseMillis(dateString);
+            if (millis == DateTimeParser.INVALID) {
+                log.warn("未知的日期格式:" + dateString);
                 return null;
             }
-
-            return date;
+            return new Date(millis);
         }
         return null;
     }
 
-    /**
-     * 从常见的时间日期字符串中提取日期的格式，以便进行日期类型的格式化
-     * 对日期的字符串解析为时间类型！支持格式:
-     * "yyyy/MM/dd"及"yyyy/MM/dd HH:mm"及"yyyy/MM/dd HH:mm:ss"
-     * "yyyy_MM_dd"及"yyyy_MM_dd HH:mm"及yyyy_MM_dd HH:mm:ss"
-     * "yyyy-MM-dd"及"yyyy-MM-dd HH:mm"及"yyyy-MM-dd HH:mm:ss"
-     * "yyyyMMdd"及"yyyyMMdd HH:mm"及"yyyyMMdd HH:mm:ss"
-     * "yyyyMMdd HHmmss"及"yyyyMMdd HHmm"
-     * "HH:mm"及"HH:mm:ss"
-     *
-     * @param dateString 时间字符串
-     * @return pattern 风格字符串
-     */
-    private static String getPatternFromDateString(String dateString) {
-        if (CommUtil.isEmptyString(dateString)) {
-            return null;
-        }
-        String pattern = null;
-        if (dateString.length() == 19) { // 全格式的
-            if (dateString.indexOf("/") > 0) {
-                pattern = "yyyy/MM/dd HH:mm:ss";
-            } else if (dateString.indexOf("_") > 0) {
-                pattern = "yyyy_MM_dd HH:mm:ss";
-            } else if (dateString.indexOf("-") > 0) {
-                pattern = "yyyy-MM-dd HH:mm:ss";
-            }
-        } else if (dateString.length() == 17) { // 年月日不带分隔符的全格式
-            pattern = "yyyyMMdd HH:mm:ss";
-        } else if (dateString.length() == 16) { // 不带秒的全格式
-            if (dateString.indexOf("/") > 0) {
-                pattern = "yyyy/MM/dd HH:mm";
-            } else if (dateString.indexOf("_") > 0) {
-                pattern = "yyyy_MM_dd HH:mm";
-            } else if (dateString.indexOf("-") > 0) {
-                pattern = "yyyy-MM-dd HH:mm";
-            }
-        } else if (dateString.length() == 15) { // 不带带分隔符的年月日格式及时分秒不带冒号
-            pattern = "yyyyMMdd HHmmss";
-        } else if (dateString.length() == 14) { // 不带带分隔符的年月日格式及时分
-            pattern = "yyyyMMdd HH:mm";
-        } else if (dateString.length() == 13) { // 不带带分隔符的年月日格式及时分
-            pattern = "yyyyMMdd HHmm";
-        } else if (dateString.length() == 10) { // 带分隔符的年月日格式
-            if (dateString.indexOf("/") > 0) {
-                pattern = "yyyy/MM/dd";
-            } else if (dateString.indexOf("_") > 0) {
-                pattern = "yyyy_MM_dd";
-            } else if (dateString.indexOf("-") > 0) {
-                pattern = "yyyy-MM-dd";
-            }
-        } else if (dateString.length() == 8) { // 不带分隔符的年月日格式或者时分秒的格式
-            if (dateString.indexOf(":") > 0) {
-                pattern = "HH:mm:ss";
-            } else {
-                pattern = "yyyyMMdd";
-            }
-        } else if (dateString.length() == 5) {  // 仅仅时分的格式
-            if (dateString.indexOf(":") > 0) {
-                pattern = "HH:mm";
-            }
-        } else {
-            log.warn("未知的日期格式:" + dateString);
-        }
-        return pattern;
-    }
-
     /**
      * 对日期的字符串解析为LocalDateTime类型！支持格式:
      * "yyyy/MM/dd HH:mm"及"yyyy/MM/dd HH:mm:ss"
@@ -333,19 +320,11 @@ public abstract class DateTimeUtil {
      * ISO_LOCAL_DATE_TIME,例如:2011-12-03T10:15:30 DateTimeFormatter.ISO_LOCAL_DATE_TIME
      *
      * @param dateString 日期格式的字符串
-     * @return LocalDateTime java8的日期时间格式
+     * @return LocalDateTime java8的日期时间格式，无法解析时返回null
      */
     public static LocalDateTime getLocalDateTimeFromString(String dateString) {
         if (!CommUtil.isEmptyString(dateString)) {
-            if (dateString.contains("T") && dateString.length() == 19) {
-                // 说明是标准的ISO_LOCAL_DATE_TIME格式
-                return LocalDateTime.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            } else if (!dateString.contains("T") && dateString.length() >= 13 && dateString.length() <= 19) {
-                // 含有年月日十分秒的格式
-                String pattern = getPatternFromDateString(dateString);
-                assert pattern != null;
-                return LocalDateTime.parse(dateString, DateTimeFormatter.ofPattern(pattern));
-            }
+            return DateTimeParser.parseLocalDateTime(dateString);
         }
         return null;
     }
@@ -360,20 +339,11 @@ public abstract class DateTimeUtil {
      * ISO_LOCAL_DATE_TIME,例如:2011-12-03T10:15:30 DateTimeFormatter.ISO_LOCAL_DATE_TIME
      *
      * @param dateString 日期格式的字符串
-     * @return LocalDate java8的日期时间格式
+     * @return LocalDate java8的日期时间格式，无法解析时返回null
      */
     public static LocalDate getLocalDateFromString(String dateString) {
         if (!CommUtil.isEmptyString(dateString)) {
-            // 含有年月日时分秒的格式
-            if (dateString.length() >= 13 && dateString.length() <= 19) {
-                // 说明是标准的ISO_LOCAL_DATE_TIME格式
-                return Objects.requireNonNull(getLocalDateTimeFromString(dateString)).toLocalDate();
-            } else if (dateString.length() >= 8 && dateString.length() <= 10 && !dateString.contains(":")) {
-                // 仅日期，不含时分秒的格式
-                String pattern = getPatternFromDateString(dateString);
-                assert pattern != null;
-                return LocalDate.parse(dateString, DateTimeFormatter.ofPattern(pattern));
-            }
+            return DateTimeParser.parseLocalDate(dateString);
         }
         return null;
     }
@@ -389,37 +359,29 @@ public abstract class DateTimeUtil {
      * ISO_LOCAL_DATE_TIME,例如:2011-12-03T10:15:30 DateTimeFormatter.ISO_LOCAL_DATE_TIME
      *
      * @param dateString 日期格式的字符串
-     * @return LocalTime java8的日期时间格式
+     * @return LocalTime java8的日期时间格式，无法解析时返回null
      */
     public static LocalTime getLocalTimeFromString(String dateString) {
         if (!CommUtil.isEmptyString(dateString)) {
-            // 含有年月日时分秒的格式
-            if (dateString.length() >= 13 && dateString.length() <= 19) {
-                return Objects.requireNonNull(getLocalDateTimeFromString(dateString)).toLocalTime();
-            } else if (dateString.length() <= 8 && dateString.contains(":")) {
-                // "HH:mm"及"HH:mm:ss"
-                String pattern = getPatternFromDateString(dateString);
-                assert pattern != null;
-                return LocalTime.parse(dateString, DateTimeFormatter.ofPattern(pattern));
-            }
+            return DateTimeParser.parseLocalTime(dateString);
         }
         return null;
     }
 
     public static String getDateStrFromLong(long dateLong) {
-        return getDateStrFromLong(dateLong, new SimpleDateFormat(DATE_FORMAT_yyyy_MM_dd));
+        return DateTimeFormats.format(dateLong, DATE_FORMAT_yyyy_MM_dd);
     }
 
     public static String getFullDateStrFromLong(long dateLong) {
-        return getDateStrFromLong(dateLong, new SimpleDateFormat(DATE_FORMAT_yyyy_MM_dd_HH_MM_SS));
+        return DateTimeFormats.format(dateLong, DATE_FORMAT_yyyy_MM_dd_HH_MM_SS);
     }
 
     public static String getHHMMSSDateStrFromLong(long dateLong) {
-        return getDateStrFromLong(dateLong, new SimpleDateFormat(DATE_FORMAT_HH_MM_SS));
+        return DateTimeFormats.format(dateLong, DATE_FORMAT_HH_MM_SS);
     }
 
     public static String getMdHmsDateStrFromLong(long dateLong) {
-        return getDateStrFromLong(dateLong, new SimpleDateFormat(DATE_FORMAT_MM_dd_HH_MM_SS));
+        return DateTimeFormats.format(dateLong, DATE_FORMAT_MM_dd_HH_MM_SS);
     }
 
     /**
@@ -430,10 +392,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static String getOsCurrentTime() {
-        //get currentTime from os
-        Long currentLong = System.currentTimeMillis();
-        String currentTime = DateTimeUtil.getFullDateStrFromLong(currentLong);
-        return currentTime;
+        return CachedClock.format(DATE_FORMAT_yyyy_MM_dd_HH_MM_SS);
     }
 
     public static String getDateStrFromLong(long dateLong, SimpleDateFormat sdFormat) {
@@ -447,6 +406,11 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static long getCurrYesteryear() {
+        LocalDate today = CachedClock.today();
+        long start = CalendarTable.ofDefault().monthStart(today.getYear() - 1, today.getMonthValue());
+        if (start != CalendarTable.OUT_OF_RANGE) {
+            return start;
+        }
         long curMonthStart = DateTimeUtil.getCurrentMonthStart();
         String dtString = DateTimeUtil.getFullDateStrFromLong(curMonthStart);
         int year = DateTimeUtil.getCurrentYear().intValue() - 1;
@@ -463,9 +427,7 @@ public abstract class DateTimeUtil {
      * @return long
      */
     public static long getCurrYearLast() {
-        Calendar currCal = Calendar.getInstance();
-        int currentYear = currCal.get(Calendar.YEAR);
-        return getYearLast(currentYear);
+        return getYearLast(CachedClock.today().getYear());
     }
 
     /**
@@ -478,6 +440,10 @@ public abstract class DateTimeUtil {
         if (CommUtil.isEmptyInt(year)) {
             return 0l;
         }
+        long start = CalendarTable.ofDefault().yearStart(year);
+        if (start != CalendarTable.OUT_OF_RANGE) {
+            return start;
+        }
         Calendar calendar = Calendar.getInstance();
         calendar.clear();
         calendar.set(Calendar.YEAR, year);
@@ -495,6 +461,10 @@ public abstract class DateTimeUtil {
         if (CommUtil.isEmptyInt(year)) {
             return 0l;
         }
+        long nextYearStart = CalendarTable.ofDefault().yearStart(year + 1);
+        if (nextYearStart != CalendarTable.OUT_OF_RANGE) {
+            return nextYearStart - 1000;
+        }
         String fullDateString = year + "/12/31 23:59:59";
         long currYearLast = getTimeFromString(fullDateString);
 
@@ -513,6 +483,10 @@ public abstract class DateTimeUtil {
     public static Date toDate(String dateString) {
         if (CommUtil.isEmptyString(dateString))
             return null;
+        long millis = parseStandardDateTime(dateString, 19);
+        if (millis != DateTimeParser.INVALID) {
+            return new Date(millis);
+        }
         try {
             if (dateString.indexOf('/') != -1) {
                 return threadLocal.get().get(SDF2).parse(dateString);
@@ -535,6 +509,10 @@ public abstract class DateTimeUtil {
     public static Date toDateWithoutSecond(String dateString) {
         if (CommUtil.isEmptyString(dateString))
             return null;
+        long millis = parseStandardDateTime(dateString, 16);
+        if (millis != DateTimeParser.INVALID) {
+            return new Date(millis);
+        }
         try {
             if (dateString.indexOf('/') != -1) {
                 return threadLocal.get().get(SDF10).parse(dateString);
@@ -547,6 +525,24 @@ public abstract class DateTimeUtil {
         return null;
     }
 
+    /**
+     * 标准格式(yyyy-MM-dd HH:mm:ss、yyyy/MM/dd HH:mm:ss及不带秒的格式)直接使用DateTimeParser解析，
+     * 解析结果和SimpleDateFormat相同；其他格式或者字段不合法时返回INVALID，由调用方使用宽松的SimpleDateFormat处理
+     *
+     * @param dateString 日期字符串
+     * @param length     19:带秒的格式; 16:不带秒的格式
+     */
+    private static long parseStandardDateTime(String dateString, int length) {
+        if (dateString.length() != length || dateString.charAt(10) != ' ') {
+            return DateTimeParser.INVALID;
+        }
+        char separator = dateString.charAt(4);
+        if (separator != '/' && separator != '-') {
+            return DateTimeParser.INVALID;
+        }
+        return DateTimeParser.parseMillis(dateString);
+    }
+
     public static Long toSqlDateTime(String dateString) {
         return toSqlDateTime(dateString, false);
     }
@@ -566,6 +562,10 @@ public abstract class DateTimeUtil {
                 }
             }
 
+            long millis = parseStandardDateTime(dateString, 19);
+            if (millis != DateTimeParser.INVALID) {
+                return endTime ? millis + 999 : millis;
+            }
             if (dateString.indexOf('/') == 2) {
                 d = threadLocal.get().get(SDF3).parse(dateString);
             } else if (dateString.indexOf('/') != -1) {
@@ -598,31 +598,10 @@ public abstract class DateTimeUtil {
         if (-1 == datetime) {
             return "";
         }
-        Date date = new Date(datetime);
-        try {
-            if (type == 0) {
-                return threadLocal.get().get(SDF).format(date);
-            } else if (type == 1) {
-                return threadLocal.get().get(SDF2).format(date);
-            } else if (type == 2) {
-                return threadLocal.get().get(SDF3).format(date);
-            } else if (type == 3) {
-                return threadLocal.get().get(SDF4).format(date);
-            } else if (type == 4) {
-                return threadLocal.get().get(SDF5).format(date);
-            } else if (type == 5) {
-                return threadLocal.get().get(SDF6).format(date);
-            } else if (type == 6) {
-                return threadLocal.get().get(SDF7).format(date);
-            } else if (type == 7) {
-                return threadLocal.get().get(SDF8).format(date);
-            } else if (type == 8) {
-                return threadLocal.get().get(SDF9).format(date);
-            }
-        } catch (Exception e) {
-            log.error("Error to get data String", e);
+        if (type < 0 || type >= TYPE_PATTERNS.length) {
+            return "";
         }
-        return "";
+        return DateTimeFormats.format(datetime, TYPE_PATTERNS[type]);
     }
 
     /**
@@ -632,7 +611,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static String getCurDateStr() {
-        return getDateString(System.currentTimeMillis(), 0);
+        return CachedClock.format(DATE_STARNDARD_FORMAT);
     }
 
     /**
@@ -673,27 +652,11 @@ public abstract class DateTimeUtil {
     public static String getDateString(Date date, int type) {
         if (date == null)
             return "";
-        try {
-            if (type == 0) {
-                return threadLocal.get().get(SDF).format(date);
-            } else if (type == 1) {
-                return threadLocal.get().get(SDF2).format(date);
-            } else if (type == 2) {
-                return threadLocal.get().get(SDF3).format(date);
-            } else if (type == 3) {
-                return threadLocal.get().get(SDF4).format(date);
-            } else if (type == 4) {
-                return threadLocal.get().get(SDF5).format(date);
-            } else if (type == 5) {
-                return threadLocal.get().get(SDF6).format(date);
-            } else if (type == 6) {
-                return threadLocal.get().get(SDF7).format(date);
-            } else if (type == 7) {
-                return threadLocal.get().get(SDF8).format(date);
-            }
-        } catch (Exception e) {
+        // 此方法不支持type 8
+        if (type < 0 || type > 7) {
+            return "";
         }
-        return "";
+        return DateTimeFormats.format(date, TYPE_PATTERNS[type]);
     }
 
     /**
@@ -767,10 +730,8 @@ public abstract class DateTimeUtil {
      * @return 返回时间类型 yyyy-MM-dd HH:mm:ss
      */
     public static Date getNowDateFull() {
-        String dateString = formatterYMDHMS.format(new Date());
-        //将string to date
-        Date now = toDate(dateString);
-        return now;
+        // 精确到秒，同格式化为yyyy-MM-dd HH:mm:ss后再解析
+        return new Date(Math.floorDiv(CachedClock.currentTimeMillis(), 1000L) * 1000L);
     }
 
     /**
@@ -779,16 +740,7 @@ public abstract class DateTimeUtil {
      * @return返回短时间格式 yyyy-MM-dd
      */
     public static Date getNowDateShort() {
-        String dateString = formatterYMD.format(new Date());
-        try {
-            Date currentTime_2 = formatterYMD.parse(dateString);
-            return currentTime_2;
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return null;
-        }
-
-
+        return new Date(CachedClock.todayStart());
     }
 
     /**
@@ -797,7 +749,7 @@ public abstract class DateTimeUtil {
      * @return返回字符串格式 yyyy-MM-dd HH:mm:ss
      */
     public static String getStringDate() {
-        String dateString = formatterYMDHMS.format(new Date());
+        String dateString = CachedClock.format(DATE_STARNDARD_FORMAT);
         return dateString;
     }
 
@@ -807,8 +759,7 @@ public abstract class DateTimeUtil {
      * @return返回字符串格式 yyyyMMddHHmmss
      */
     public static String getStringAllDate() {
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMddHHmmssSSS");
-        String dateString = formatter.format(new Date());
+        String dateString = CachedClock.format("yyyyMMddHHmmssSSS");
         return dateString;
     }
 
@@ -818,7 +769,7 @@ public abstract class DateTimeUtil {
      * @return 返回短时间字符串格式yyyy-MM-dd
      */
     public static String getStringDateShort() {
-        String dateString = formatterYMD.format(new Date());
+        String dateString = CachedClock.format(YEAR_MONTH_DAY);
         return dateString;
     }
 
@@ -828,8 +779,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static String getTimeShort() {
-        SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss");
-        String dateString = formatter.format(new Date());
+        String dateString = CachedClock.format(DATE_FORMAT_HH_MM_SS);
         return dateString;
     }
 
@@ -841,7 +791,7 @@ public abstract class DateTimeUtil {
      */
     public static Date strToDateLong(String strDate) {
         ParsePosition pos = new ParsePosition(0);
-        Date strtodate = formatterYMDHMS.parse(strDate, pos);
+        Date strtodate = threadLocal.get().get(SDF).parse(strDate, pos);
         return strtodate;
     }
 
@@ -852,7 +802,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static String dateToStrLong(Date dateDate) {
-        String dateString = formatterYMDHMS.format(dateDate);
+        String dateString = DateTimeFormats.format(dateDate, DATE_STARNDARD_FORMAT);
         return dateString;
     }
 
@@ -864,7 +814,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static String dateToStr(Date dateDate) {
-        String dateString = formatterYMD.format(dateDate);
+        String dateString = DateTimeFormats.format(dateDate, YEAR_MONTH_DAY);
         return dateString;
     }
 
@@ -893,8 +843,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static Date getNow() {
-        Date currentTime = new Date();
-        return currentTime;
+        return new Date(CachedClock.currentTimeMillis());
     }
 
     /**
@@ -916,9 +865,7 @@ public abstract class DateTimeUtil {
      * @return 字符串 yyyyMMdd HHmmss
      */
     public static String getStringToday() {
-        Date currentTime = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMdd HHmmss");
-        String dateString = formatter.format(currentTime);
+        String dateString = CachedClock.format("yyyyMMdd HHmmss");
         return dateString;
     }
 
@@ -928,9 +875,7 @@ public abstract class DateTimeUtil {
      * @version 2016年12月16日 下午4:41:51
      */
     public static String getTodayShort() {
-        Date currentTime = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMdd");
-        String dateString = formatter.format(currentTime);
+        String dateString = CachedClock.format(DATE_FORMAT_yyyyMMdd);
         return dateString;
     }
 
@@ -962,8 +907,7 @@ public abstract class DateTimeUtil {
      * 得到现在小时
      */
     public static String getHour() {
-        Date currentTime = new Date();
-        String dateString = formatterYMDHMS.format(currentTime);
+        String dateString = CachedClock.format(DATE_STARNDARD_FORMAT);
         String hour;
         hour = dateString.substring(11, 13);
         return hour;
@@ -975,8 +919,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static String getTime() {
-        Date currentTime = new Date();
-        String dateString = formatterYMDHMS.format(currentTime);
+        String dateString = CachedClock.format(DATE_STARNDARD_FORMAT);
         String min;
         min = dateString.substring(14, 16);
         return min;
@@ -989,9 +932,7 @@ public abstract class DateTimeUtil {
      * @return
      */
     public static String getUserDate(String sformat) {
-        Date currentTime = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat(sformat);
-        String dateString = formatter.format(currentTime);
+        String dateString = CachedClock.format(sformat);
         return dateString;
     }
 
@@ -1021,8 +962,9 @@ public abstract class DateTimeUtil {
     public static String getTwoDay(String sj1, String sj2) {
         long day = 0;
         try {
-            Date date = formatterYMD.parse(sj1);
-            Date mydate = formatterYMD.parse(sj2);
+            DateFormat format = threadLocal.get().get(SDF7);
+            Date date = format.parse(sj1);
+            Date mydate = format.parse(sj2);
             day = (date.getTime() - mydate.getTime()) / (24 * 60 * 60 * 1000);
         } catch (Exception e) {
             return "";
@@ -1036,10 +978,9 @@ public abstract class DateTimeUtil {
     public static String getPreTime(String sj1, String jj) {
         String mydate1 = "";
         try {
-            Date date1 = formatterYMDHMS.parse(sj1);
+            Date date1 = threadLocal.get().get(SDF).parse(sj1);
             long Time = (date1.getTime() / 1000) + Integer.parseInt(jj) * 60;
-            date1.setTime(Time * 1000);
-            mydate1 = formatterYMDHMS.format(date1);
+            mydate1 = DateTimeFormats.format(Time * 1000, DATE_STARNDARD_FORMAT);
         } catch (Exception e) {
         }
         return mydate1;
@@ -1053,8 +994,7 @@ public abstract class DateTimeUtil {
             String mdate = "";
             Date d = getDateFromString(nowdate);
             long myTime = (d.getTime() / 1000) + Integer.parseInt(delay) * 24 * 60 * 60;
-            d.setTime(myTime * 1000);
-            mdate = formatterYMD.format(d);
+            mdate = DateTimeFormats.format(myTime * 1000, YEAR_MONTH_DAY);
             return mdate;
         } catch (Exception e) {
             return "";
@@ -1068,10 +1008,8 @@ public abstract class DateTimeUtil {
      * 如果为负数，表示过去时间
      */
     public static String getFromNow(int day) {
-        Date date = new Date();
-        long dateTime = (date.getTime() / 1000) + day * 24 * 60 * 60;
-        date.setTime(dateTime * 1000);
-        return formatterYMDHMS.format(date);
+        long dateTime = (System.currentTimeMillis() / 1000) + day * 24 * 60 * 60;
+        return DateTimeFormats.format(dateTime * 1000, DATE_STARNDARD_FORMAT);
     }
 
     /**
@@ -1109,7 +1047,7 @@ public abstract class DateTimeUtil {
      */
     public static String getEDate(String str) {
         ParsePosition pos = new ParsePosition(0);
-        Date strtodate = formatterYMD.parse(str, pos);
+        Date strtodate = threadLocal.get().get(SDF7).parse(str, pos);
         String j = strtodate.toString();
         String[] k = j.split(" ");
         return k[2] + k[1].toUpperCase() + k[5].substring(2, 4);
@@ -1127,7 +1065,7 @@ public abstract class DateTimeUtil {
         } else if (mon == 4 || mon == 6 || mon == 9 || mon == 11) {
             str += "30";
         } else {
-            if (isLeapYear(dat)) {
+            if (DateTimeParser.isLeapYear(Integer.parseInt(dat.substring(0, 4)))) {
                 str += "29";
             } else {
                 str += "28";
@@ -1194,7 +1132,7 @@ public abstract class DateTimeUtil {
             c.set(Calendar.DAY_OF_WEEK, Calendar.SATURDAY);
         else if (num.equals("0")) // 返回星期日所在的日期
             c.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
-        return new SimpleDateFormat("yyyy-MM-dd").format(c.getTime());
+        return DateTimeFormats.format(c.getTimeInMillis(), YEAR_MONTH_DAY);
     }
 
     /**
@@ -1209,7 +1147,7 @@ public abstract class DateTimeUtil {
         // int hour=c.get(Calendar.DAY_OF_WEEK);
         // hour中存的就是星期几了，其范围 1~7
         // 1=星期日 7=星期六，其他类推
-        return new SimpleDateFormat("EEEE").format(c.getTime());
+        return DateTimeFormats.format(c.getTimeInMillis(), "EEEE");
     }
 
     public static String getWeekStr(String sdate) {
@@ -1245,8 +1183,9 @@ public abstract class DateTimeUtil {
         Date date = null;
         Date mydate = null;
         try {
-            date = formatterYMD.parse(date1);
-            mydate = formatterYMD.parse(date2);
+            DateFormat format = threadLocal.get().get(SDF7);
+            date = format.parse(date1);
+            mydate = format.parse(date2);
         } catch (Exception e) {
         }
         long day = (date.getTime() - mydate.getTime()) / (24 * 60 * 60 * 1000);
@@ -1301,8 +1240,7 @@ public abstract class DateTimeUtil {
      * 以年月日中文返回 2 以横线-返回 // 3 以斜线/返回 4 以缩写不带其它符号形式返回 // 5 以点号.返回
      **************************************************************************/
     public static String getStringDateMonth(String sdate, String nd, String yf, String rq, String format) {
-        Date currentTime = new Date();
-        String dateString = formatterYMD.format(currentTime);
+        String dateString = DateTimeFormats.format(System.currentTimeMillis(), YEAR_MONTH_DAY);
         String s_nd = dateString.substring(0, 4); // 年份
         String s_yf = dateString.substring(5, 7); // 月份
         String s_rq = dateString.substring(8, 10); // 日期
@@ -1419,8 +1357,8 @@ public abstract class DateTimeUtil {
         if (sdate.length() == 8)
             sdate = sdate.substring(0, 4) + "-" + sdate.substring(4, 6) + "-" + sdate.substring(6, 8);
         ParsePosition pos = new ParsePosition(0);
-        Date strtodate = formatterYMD.parse(sdate, pos);
-        String dateString = formatterYMD.format(strtodate);
+        Date strtodate = threadLocal.get().get(SDF7).parse(sdate, pos);
+        String dateString = DateTimeFormats.format(strtodate, YEAR_MONTH_DAY);
         return dateString;
     }
 
@@ -1433,7 +1371,7 @@ public abstract class DateTimeUtil {
         //使用set方法直接进行设置
         // int day = cl.get(Calendar.DATE);
         cl.add(Calendar.DATE, -1);
-        return formatterYMD.format(cl.getTime());
+        return DateTimeFormats.format(cl.getTimeInMillis(), YEAR_MONTH_DAY);
     }
 
     /**
@@ -1445,7 +1383,7 @@ public abstract class DateTimeUtil {
         //使用set方法直接设置时间值
         //int day = cl.get(Calendar.DATE);
         cl.add(Calendar.DATE, 1);
-        return formatterYMD.format(cl.getTime());
+        return DateTimeFormats.format(cl.getTimeInMillis(), YEAR_MONTH_DAY);
     }
 
     private static String getDateAMPM() {
@@ -1462,8 +1400,9 @@ public abstract class DateTimeUtil {
     private static int compareToDateString(String date1, String date2) {
         int i = 0;
         try {
-            long ldate1 = formatterYMDHMS.parse(date1).getTime();
-            long ldate2 = formatterYMDHMS.parse(date2).getTime();
+            DateFormat format = threadLocal.get().get(SDF);
+            long ldate1 = format.parse(date1).getTime();
+            long ldate2 = format.parse(date2).getTime();
             if (ldate1 > ldate2) {
                 i = 1;
             } else if (ldate1 == ldate2) {
@@ -1514,8 +1453,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static String getStringNow() {
-        Date now = new Date();
-        return getStringDateTime(now);
+        return CachedClock.format(DATE_STARNDARD_FORMAT);
     }
 
     /**
@@ -1529,7 +1467,7 @@ public abstract class DateTimeUtil {
         if (date == null) {
             return "";
         }
-        return formatterYMDHMS.format(date);
+        return DateTimeFormats.format(date, DATE_STARNDARD_FORMAT);
     }
 
     /**
@@ -1558,7 +1496,7 @@ public abstract class DateTimeUtil {
         if (date == null) {
             return "";
         }
-        return formatterHM.format(date);
+        return DateTimeFormats.format(date, HOUR_MINUTE);
     }
 
     /**
@@ -1568,8 +1506,7 @@ public abstract class DateTimeUtil {
      * @return Created at:18-4-25 下午1:27
      */
     public static String getLastDayOfMonth(String dateStr) {
-        SimpleDateFormat sfMonth = new SimpleDateFormat("yyyy-MM");
-        SimpleDateFormat sfDate = new SimpleDateFormat("yyyy-MM-dd");
+        DateFormat sfMonth = threadLocal.get().get(SDF_MONTH);
         String lastDayOfMonth = "";
         try {
             Date t = sfMonth.parse(dateStr);
@@ -1581,7 +1518,7 @@ public abstract class DateTimeUtil {
             calendar.set(Calendar.MONTH, month);
             int lastDay = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
             calendar.set(Calendar.DAY_OF_MONTH, lastDay);
-            lastDayOfMonth = sfDate.format(calendar.getTime());
+            lastDayOfMonth = DateTimeFormats.format(calendar.getTimeInMillis(), YEAR_MONTH_DAY);
 
         } catch (ParseException e) {
             e.printStackTrace();
@@ -1596,7 +1533,7 @@ public abstract class DateTimeUtil {
      * @return Created at:18-4-25 上午11:09
      */
     public static String nextMonth(String dateStr) {
-        SimpleDateFormat sfMonth = new SimpleDateFormat("yyyy-MM-dd");
+        DateFormat sfMonth = threadLocal.get().get(SDF7);
         String nextMonth = "";
         try {
             Date t = sfMonth.parse(dateStr);
@@ -1608,8 +1545,7 @@ public abstract class DateTimeUtil {
             calendar.set(Calendar.YEAR, year);
             calendar.set(Calendar.MONTH, month);
             calendar.set(Calendar.DATE, date);
-            Date time = calendar.getTime();
-            nextMonth = sfMonth.format(time);
+            nextMonth = DateTimeFormats.format(calendar.getTimeInMillis(), YEAR_MONTH_DAY);
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -1623,7 +1559,7 @@ public abstract class DateTimeUtil {
      * @return Created at:18-4-25 下午1:13
      */
     public static Integer nowMonth(String dateStr) {
-        SimpleDateFormat sfMonth = new SimpleDateFormat("yyyy-MM");
+        DateFormat sfMonth = threadLocal.get().get(SDF_MONTH);
         Integer nextMonth = null;
         try {
             Date t = sfMonth.parse(dateStr);
@@ -1646,7 +1582,7 @@ public abstract class DateTimeUtil {
      * @return Created at:18-4-25 下午2:12
      */
     public static Integer nowYear(String dateStr) {
-        SimpleDateFormat sfMonth = new SimpleDateFormat("yyyy-MM");
+        DateFormat sfMonth = threadLocal.get().get(SDF_MONTH);
         Integer year = null;
         try {
             Date t = sfMonth.parse(dateStr);
@@ -1688,7 +1624,7 @@ public abstract class DateTimeUtil {
      * @author dbdu
      */
     public static Long getTodayStart() {
-        return DateTimeUtil.getTimeMSFromString(DateTimeUtil.getCurrentDate() + " 00:00:00");
+        return CachedClock.todayStart();
     }
 
     /**
@@ -0,0 +1,403 @@
+package vip.efactory.common.base.utils;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:毫秒数的快速格式化器，只支持由数字字段组成的固定格式，例如DateTimeUtil中的
+ * "yyyy-MM-dd HH:mm:ss"、"yyyyMMddHHmmss"、"yyyy/MM/dd"等。
+ * <p>
+ * 使用预先计算的两位数字表查表输出，时区偏移量来自按时区缓存的ZoneOffsetTable，直接写入调用方提供的
+ * byte[]、char[]或者DataBuffer，不创建Calendar、ZonedDateTime及中间的String，适合大量导出时间戳(Json、CSV)的场景。
+ * 输出和DateTimeFormats相同，年份不在1900-9999之间时退回DateTimeFormats(1900年之前为SimpleDateFormat，
+ * 1582-10-15之前是儒略历，同DateTimeParser)。
+ * <p>
+ * 支持的模式字母：yyyy、MM、dd、HH、mm、ss及S(毫秒数，同SimpleDateFormat)，其他字符只能是ASCII的非字母字符。
+ *
+ * @author dbdu
+ */
+public final class EpochFormatter {
+    private static final byte[] TENS = new byte[100];
+    private static final byte[] ONES = new byte[100];
+
+    private static final long SECONDS_PER_DAY = 86400L;
+    /**
+     * 1900-01-01及9999-12-31距1970-01-01的天数：早于1900年时java.util的时区数据及历法(1582年以前是儒略历)
+     * 和公历查表的结果不同，超过9999年时年份不是4位数
+     */
+    private static final long MIN_EPOCH_DAY = DateTimeParser.epochDay(DateTimeParser.MIN_FAST_YEAR, 1, 1);
+    private static final long MAX_EPOCH_DAY = DateTimeParser.epochDay(9999, 12, 31);
+    private static final long OUT_OF_RANGE = -1L;
+
+    private static final int LITERAL = 0;
+    private static final int YEAR = 1;
+    private static final int MONTH = 2;
+    private static final int DAY = 3;
+    private static final int HOUR = 4;
+    private static final int MINUTE = 5;
+    private static final int SECOND = 6;
+    private static final int MILLI = 7;
+
+    /**
+     * 最多缓存的模式数量，超出后新的模式每次重新解析，不再缓存
+     */
+    private static final int MAX_PATTERNS = 256;
+    /**
+     * 按模式缓存(最多MAX_PATTERNS个)，不支持的模式缓存为UNSUPPORTED
+     */
+    private static final ConcurrentMap<String, EpochFormatter> CACHE = new ConcurrentHashMap<>();
+    private static final EpochFormatter UNSUPPORTED = new EpochFormatter("", new int[0], new int[0], 0);
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (byte) ('0' + i / 10);
+            ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss"
+     */
+    public static final EpochFormatter STANDARD = of(DateTimeUtil.DATE_STARNDARD_FORMAT);
+    /**
+     * "yyyyMMddHHmmss"
+     */
+    public static final EpochFormatter COMPACT = of(DateTimeUtil.DATE_FORMAR_yyyyMMddHHmmss);
+    /**
+     * "yyyy-MM-dd"
+     */
+    public static final EpochFormatter DATE = of(DateTimeUtil.YEAR_MONTH_DAY);
+
+    private final String pattern;
+    /**
+     * 每个元素的类型及参数：字面字符或者数字字段的最少位数
+     */
+    private final int[] types;
+    private final int[] values;
+    private final int maxLength;
+
+    private EpochFormatter(String pattern, int[] types, int[] values, int maxLength) {
+        this.pattern = pattern;
+        this.types = types;
+        this.values = values;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 获取模式对应的格式化器，按模式缓存(最多MAX_PATTERNS个)
+     *
+     * @param pattern SimpleDateFormat写法的模式
+     * @return 格式化器，模式中含有不支持的字母或者字符时返回null
+     */
+    public static EpochFormatter of(String pattern) {
+        EpochFormatter formatter = CACHE.get(pattern);
+        if (formatter == null) {
+            formatter = compile(pattern);
+            if (CACHE.size() < MAX_PATTERNS) {
+                CACHE.putIfAbsent(pattern, formatter == null ? UNSUPPORTED : formatter);
+            }
+        }
+        return formatter == UNSUPPORTED ? null : formatter;
+    }
+
+    private static EpochFormatter compile(String pattern) {
+        int length = pattern.length();
+        int[] types = new int[length];
+        int[] values = new int[length];
+        int count = 0;
+        int maxLength = 0;
+        int i = 0;
+        while (i < length) {
+            char c = pattern.charAt(i);
+            int end = i + 1;
+            while (end < length && pattern.charAt(end) == c) {
+                end++;
+            }
+            int width = end - i;
+            int type;
+            switch (c) {
+                case 'y':
+                    type = width == 4 ? YEAR : -1;
+                    break;
+                case 'M':
+                    type = width == 2 ? MONTH : -1;
+                    break;
+                case 'd':
+                    type = width == 2 ? DAY : -1;
+                    break;
+                case 'H':
+                    type = width == 2 ? HOUR : -1;
+                    break;
+                case 'm':
+                    type = width == 2 ? MINUTE : -1;
+                    break;
+                case 's':
+                    type = width == 2 ? SECOND : -1;
+                    break;
+                case 'S':
+                    type = MILLI;
+                    break;
+                default:
+                    if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '\'' || c >= 0x80) {
+                        return null;
+                    }
+                    type = LITERAL;
+                    end = i + 1;
+                    break;
+            }
+            if (type < 0) {
+                return null;
+            }
+            types[count] = type;
+            if (type == LITERAL) {
+                values[count] = c;
+                maxLength++;
+            } else {
+                values[count] = width;
+                if (type == MILLI) {
+                    // 毫秒数不足width位时补零，超过时原样输出
+                    maxLength += Math.max(width, 3);
+                } else if (type == YEAR) {
+                    // 超出范围时退回DateTimeFormatter，年份最长为带符号的10位，例如+292278994
+                    maxLength += 10;
+                } else {
+                    maxLength += width;
+                }
+            }
+            count++;
+            i = end;
+        }
+        int[] trimmedTypes = new int[count];
+        int[] trimmedValues = new int[count];
+        System.arraycopy(types, 0, trimmedTypes, 0, count);
+        System.arraycopy(values, 0, trimmedValues, 0, count);
+        return new EpochFormatter(pattern, trimmedTypes, trimmedValues, maxLength);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 格式化结果的最大长度，调用方据此准备缓冲区
+     */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * 使用默认时区格式化毫秒数
+     */
+    public String format(long millis) {
+        return format(millis, ZoneId.systemDefault());
+    }
+
+    /**
+     * 使用指定时区格式化毫秒数
+     */
+    public String format(long millis, ZoneId zone) {
+        byte[] buffer = new byte[maxLength];
+        int length = format(millis, zone, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 格式化毫秒数并写入dst的offset处，dst从offset开始至少要有maxLength()个字节
+     *
+     * @return 写入后的位置
+     */
+    public int format(long millis, ZoneId zone, byte[] dst, int offset) {
+        long local = localFields(millis, zone);
+        if (local == OUT_OF_RANGE) {
+            String text = fallback(millis, zone);
+            for (int i = 0; i < text.length(); i++) {
+                dst[offset++] = (byte) text.charAt(i);
+            }
+            return offset;
+        }
+        for (int i = 0; i < types.length; i++) {
+            int type = types[i];
+            if (type == LITERAL) {
+                dst[offset++] = (byte) values[i];
+            } else if (type == MILLI) {
+                int milli = (int) Math.floorMod(millis, 1000L);
+                for (int pad = values[i] - milliDigits(milli); pad > 0; pad--) {
+                    dst[offset++] = '0';
+                }
+                if (milli >= 100) {
+                    dst[offset++] = ONES[milli / 100];
+                }
+                if (milli >= 10) {
+                    dst[offset++] = TENS[milli % 100];
+                }
+                dst[offset++] = ONES[milli % 100];
+            } else if (type == YEAR) {
+                int year = year(local);
+                dst[offset] = TENS[year / 100];
+                dst[offset + 1] = ONES[year / 100];
+                dst[offset + 2] = TENS[year % 100];
+                dst[offset + 3] = ONES[year % 100];
+                offset += 4;
+            } else {
+                int value = twoDigitField(type, local);
+                dst[offset] = TENS[value];
+                dst[offset + 1] = ONES[value];
+                offset += 2;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 格式化毫秒数并写入dst的offset处，dst从offset开始至少要有maxLength()个字符
+     *
+     * @return 写入后的位置
+     */
+    public int format(long millis, ZoneId zone, char[] dst, int offset) {
+        long local = localFields(millis, zone);
+        if (local == OUT_OF_RANGE) {
+            String text = fallback(millis, zone);
+            text.getChars(0, text.length(), dst, offset);
+            return offset + text.length();
+        }
+        for (int i = 0; i < types.length; i++) {
+            int type = types[i];
+            if (type == LITERAL) {
+                dst[offset++] = (char) values[i];
+            } else if (type == MILLI) {
+                int milli = (int) Math.floorMod(millis, 1000L);
+                for (int pad = values[i] - milliDigits(milli); pad > 0; pad--) {
+                    dst[offset++] = '0';
+                }
+                if (milli >= 100) {
+                    dst[offset++] = (char) ONES[milli / 100];
+                }
+                if (milli >= 10) {
+                    dst[offset++] = (char) TENS[milli % 100];
+                }
+                dst[offset++] = (char) ONES[milli % 100];
+            } else if (type == YEAR) {
+                int year = year(local);
+                dst[offset] = (char) TENS[year / 100];
+                dst[offset + 1] = (char) ONES[year / 100];
+                dst[offset + 2] = (char) TENS[year % 100];
+                dst[offset + 3] = (char) ONES[year % 100];
+                offset += 4;
+            } else {
+                int value = twoDigitField(type, local);
+                dst[offset] = (char) TENS[value];
+                dst[offset + 1] = (char) ONES[value];
+                offset += 2;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 格式化毫秒数并直接写入DataBuffer的当前写位置，容量不足时先扩容
+     */
+    public void format(long millis, ZoneId zone, DataBuffer dst) {
+        long local = localFields(millis, zone);
+        if (local == OUT_OF_RANGE) {
+            dst.write(fallback(millis, zone), StandardCharsets.ISO_8859_1);
+            return;
+        }
+        dst.ensureCapacity(maxLength);
+        for (int i = 0; i < types.length; i++) {
+            int type = types[i];
+            if (type == LITERAL) {
+                dst.write((byte) values[i]);
+            } else if (type == MILLI) {
+                int milli = (int) Math.floorMod(millis, 1000L);
+                for (int pad = values[i] - milliDigits(milli); pad > 0; pad--) {
+                    dst.write((byte) '0');
+                }
+                if (milli >= 100) {
+                    dst.write(ONES[milli / 100]);
+                }
+                if (milli >= 10) {
+                    dst.write(TENS[milli % 100]);
+                }
+                dst.write(ONES[milli % 100]);
+            } else if (type == YEAR) {
+                int year = year(local);
+                dst.write(TENS[year / 100]).write(ONES[year / 100]).write(TENS[year % 100]).write(ONES[year % 100]);
+            } else {
+                int value = twoDigitField(type, local);
+                dst.write(TENS[value]).write(ONES[value]);
+            }
+        }
+    }
+
+    /**
+     * 本地日期时间打包为一个long：yyyyMMdd形式的日期乘以SECONDS_PER_DAY再加上当天的秒数，年份超出范围时返回OUT_OF_RANGE
+     */
+    private static long localFields(long millis, ZoneId zone) {
+        long epochSecond = Math.floorDiv(millis, 1000L);
+        long localSecond = epochSecond + ZoneOffsetTable.of(zone).offsetOfEpoch(epochSecond);
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            return OUT_OF_RANGE;
+        }
+        return civilDate(epochDay) * SECONDS_PER_DAY + (localSecond - epochDay * SECONDS_PER_DAY);
+    }
+
+    private static int year(long local) {
+        return (int) (local / SECONDS_PER_DAY / 10000);
+    }
+
+    private static int twoDigitField(int type, long local) {
+        int date = (int) (local / SECONDS_PER_DAY);
+        int secondOfDay = (int) (local % SECONDS_PER_DAY);
+        switch (type) {
+            case MONTH:
+                return date / 100 % 100;
+            case DAY:
+                return date % 100;
+            case HOUR:
+                return secondOfDay / 3600;
+            case MINUTE:
+                return secondOfDay / 60 % 60;
+            default:
+                return secondOfDay % 60;
+        }
+    }
+
+    private static int milliDigits(int milli) {
+        return milli >= 100 ? 3 : milli >= 10 ? 2 : 1;
+    }
+
+    private String fallback(long millis, ZoneId zone) {
+        return DateTimeFormats.formatWithoutEpoch(millis, pattern, zone);
+    }
+
+    /**
+     * 距1970-01-01的天数转换为yyyyMMdd形式的整数，算法同LocalDate.ofEpochDay
+     */
+    private static int civilDate(long epochDay) {
+        long zeroDay = epochDay + 719528L - 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / 146097L - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * 146097L;
+        }
+        long yearEst = (400 * zeroDay + 591) / 146097L;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        return (int) yearEst * 10000 + month * 100 + day;
+    }
+}
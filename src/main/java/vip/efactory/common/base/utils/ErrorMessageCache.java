@@ -0,0 +1,207 @@
+package vip.efactory.common.base.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import vip.efactory.common.base.valid.ValidatorEngine;
+import vip.efactory.common.i18n.enums.CommonEnum;
+import vip.efactory.common.i18n.enums.ErrorCodeUtil;
+import vip.efactory.common.i18n.enums.IBaseErrorEnum;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:错误枚举国际化信息的缓存，按(错误枚举,LocaleContextHolder的区域)缓存，
+ * 避免每个错误响应都去查找资源文件及解析MessageFormat。缓存的区域数量有上限(MAX_LOCALES)，超出后的区域不使用缓存。
+ * <p>
+ * 没有参数时直接返回缓存的信息；有参数时把无参数的信息作为模式编译为MessageFormat，每次克隆后格式化。
+ * 每个缓存项第一次带参数格式化时会和ErrorCodeUtil的结果比对一次，不一致(例如ErrorCodeUtil的占位符规则不同)时
+ * 该缓存项以后带参数的调用都直接交给ErrorCodeUtil，保证结果和不使用缓存时完全相同。
+ * <p>
+ * 应用启动完成后预热CommonEnum及efactory.error-message.warm-enums配置的枚举类，
+ * 区域为efactory.error-message.warm-locales配置的区域(默认为系统区域)。国际化信息修改后调用clear。
+ *
+ * @author dbdu
+ */
+@Slf4j
+@Component
+public class ErrorMessageCache implements ApplicationListener<ApplicationReadyEvent> {
+    /**
+     * 最多缓存的国际化区域数量，同ValidatorEngine.DEFAULT_MAX_LOCALES；区域来自请求的Accept-Language，
+     * 超出后的区域不缓存，直接交给ErrorCodeUtil，防止恶意的Accept-Language撑爆缓存
+     */
+    public static final int MAX_LOCALES = ValidatorEngine.DEFAULT_MAX_LOCALES;
+
+    private static final ConcurrentMap<Locale, ConcurrentMap<IBaseErrorEnum, CachedMessage>> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 缓存过的错误枚举的无参数信息(所有区域)，ConstantResponseCache只缓存这些信息的响应
+     */
+    private static final Set<String> ENUM_MESSAGES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 启动时需要预热的错误枚举类全名,多个用逗号分隔
+     */
+    private String[] warmEnums = new String[0];
+    /**
+     * 启动时需要预热的区域,例如zh_CN,多个用逗号分隔
+     */
+    private String[] warmLocales = new String[0];
+
+    @Value("${efactory.error-message.warm-enums:}")
+    public void setWarmEnums(String[] warmEnums) {
+        this.warmEnums = warmEnums;
+    }
+
+    @Value("${efactory.error-message.warm-locales:}")
+    public void setWarmLocales(String[] warmLocales) {
+        this.warmLocales = warmLocales;
+    }
+
+    /**
+     * 获取错误枚举在当前区域(LocaleContextHolder)的信息，结果同ErrorCodeUtil.getMessage
+     *
+     * @param errorEnum 错误枚举
+     * @param args      替换占位符的参数
+     * @return 国际化的错误信息
+     */
+    public static String getMessage(IBaseErrorEnum errorEnum, String... args) {
+        Locale locale = LocaleContextHolder.getLocale();
+        ConcurrentMap<IBaseErrorEnum, CachedMessage> messages = CACHE.get(locale);
+        if (messages == null) {
+            if (CACHE.size() >= MAX_LOCALES) {
+                return ErrorCodeUtil.getMessage(errorEnum, args);
+            }
+            messages = CACHE.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        }
+        CachedMessage cached = messages.get(errorEnum);
+        if (cached == null) {
+            String message = ErrorCodeUtil.getMessage(errorEnum);
+            if (message == null) {
+                return ErrorCodeUtil.getMessage(errorEnum, args);
+            }
+            cached = new CachedMessage(message, locale);
+            messages.putIfAbsent(errorEnum, cached);
+            ENUM_MESSAGES.add(message);
+        }
+        if (args == null || args.length == 0) {
+            return cached.message;
+        }
+        return cached.format(errorEnum, args);
+    }
+
+    /**
+     * 是否是错误枚举的无参数信息(已经缓存过的)，动态拼接的信息返回false
+     */
+    public static boolean isEnumMessage(String message) {
+        return message != null && ENUM_MESSAGES.contains(message);
+    }
+
+    /**
+     * 清除所有缓存，国际化信息修改后调用
+     */
+    public static void clear() {
+        CACHE.clear();
+        ENUM_MESSAGES.clear();
+    }
+
+    /**
+     * 应用启动完成后预热缓存
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        List<IBaseErrorEnum> errorEnums = new ArrayList<>(Arrays.asList(CommonEnum.values()));
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        for (String className : warmEnums) {
+            if (StringUtils.isEmpty(className) || className.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                Class<?> enumClass = ClassUtils.forName(className.trim(), classLoader);
+                if (enumClass.isEnum() && IBaseErrorEnum.class.isAssignableFrom(enumClass)) {
+                    for (Object constant : enumClass.getEnumConstants()) {
+                        errorEnums.add((IBaseErrorEnum) constant);
+                    }
+                } else {
+                    log.warn("[{}] is not an enum of IBaseErrorEnum, skip warming", className);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("warm error messages of [{}] failed: {}", className, e.getMessage());
+            }
+        }
+        List<Locale> locales = new ArrayList<>();
+        for (String locale : warmLocales) {
+            if (!StringUtils.isEmpty(locale) && !locale.trim().isEmpty()) {
+                locales.add(StringUtils.parseLocale(locale.trim()));
+            }
+        }
+        if (locales.isEmpty()) {
+            locales.add(Locale.getDefault());
+        }
+        for (Locale locale : locales) {
+            LocaleContextHolder.setLocale(locale);
+            try {
+                for (IBaseErrorEnum errorEnum : errorEnums) {
+                    getMessage(errorEnum);
+                }
+            } catch (RuntimeException e) {
+                log.warn("warm error messages of locale [{}] failed: {}", locale, e.getMessage());
+            } finally {
+                LocaleContextHolder.resetLocaleContext();
+            }
+        }
+        log.debug("warmed {} error messages for locales {}", errorEnums.size(), locales);
+    }
+
+    private static final class CachedMessage {
+        /**
+         * 没有参数时的信息，同时也是MessageFormat的模式
+         */
+        private final String message;
+        /**
+         * 编译好的MessageFormat，不是线程安全的，使用时克隆；模式不合法时为null
+         */
+        private final MessageFormat format;
+        /**
+         * 0:还没有和ErrorCodeUtil比对过; 1:结果一致; -1:结果不一致，交给ErrorCodeUtil处理
+         */
+        private volatile int state;
+
+        CachedMessage(String message, Locale locale) {
+            this.message = message;
+            MessageFormat compiled;
+            try {
+                compiled = new MessageFormat(message, locale);
+            } catch (IllegalArgumentException e) {
+                compiled = null;
+            }
+            this.format = compiled;
+            this.state = compiled == null ? -1 : 0;
+        }
+
+        String format(IBaseErrorEnum errorEnum, String... args) {
+            int current = state;
+            if (current < 0) {
+                return ErrorCodeUtil.getMessage(errorEnum, args);
+            }
+            String formatted = ((MessageFormat) format.clone()).format(args);
+            if (current == 0) {
+                String expected = ErrorCodeUtil.getMessage(errorEnum, args);
+                if (!formatted.equals(expected)) {
+                    log.debug("message of {} can not be formatted by cache, delegate to ErrorCodeUtil", errorEnum);
+                    state = -1;
+                    return expected;
+                }
+                state = 1;
+            }
+            return formatted;
+        }
+    }
+}
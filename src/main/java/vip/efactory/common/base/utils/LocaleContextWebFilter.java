@@ -0,0 +1,28 @@
+package vip.efactory.common.base.utils;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Description:把当前请求的国际化区域写入Reactor Context，
+ * WebFlux中线程会切换，LocaleContextHolder的ThreadLocal不可靠，响应式的代码应从Context中读取区域。
+ *
+ * @author dbdu
+ */
+@Component
+public class LocaleContextWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Locale locale = exchange.getLocaleContext().getLocale();
+        if (locale == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).subscriberContext(ctx -> ctx.put(ValidateModelUtil.LOCALE_CONTEXT_KEY, locale));
+    }
+}
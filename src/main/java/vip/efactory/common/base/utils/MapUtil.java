@@ -3,21 +3,26 @@ package vip.efactory.common.base.utils;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.beanutils.BeanMap;
 import org.apache.commons.beanutils.BeanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Description:与Map集合有关的工具类
@@ -35,6 +40,12 @@ import java.util.Map;
 public class MapUtil {
     private static Logger logger = LoggerFactory.getLogger(MapUtil.class);
 
+    /**
+     * 批量转换时超过此数量才并行处理，数据量小时并行的调度开销大于收益
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+    private static final ResolvableType MAP_TYPE = ResolvableType.forClassWithGenerics(Map.class, String.class, Object.class);
+
     /**
      * Description:使用org.apache.commons.beanutils进行转换
      * 将对象转换为Map
@@ -79,30 +90,38 @@ public class MapUtil {
         if (obj == null) {
             return null;
         }
-        Map<String, Object> map = new HashMap<String, Object>();
-
-        BeanInfo beanInfo = null;
+        Map<String, Object> map = null;
         try {
-            beanInfo = Introspector.getBeanInfo(obj.getClass());
-
-            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : propertyDescriptors) {
-                String key = property.getName();
-                if (key.compareToIgnoreCase("class") == 0) {
-                    continue;
-                }
-                Method getter = property.getReadMethod();
-                Object value = getter != null ? getter.invoke(obj) : null;
-                map.put(key, value);
+            // 属性元数据按类缓存，只在第一次转换时使用Introspector解析
+            BeanMetadata metadata = BeanMetadata.of(obj.getClass());
+            int size = metadata.size();
+            map = new HashMap<String, Object>(BeanMetadata.capacity(size));
+            for (int i = 0; i < size; i++) {
+                map.put(metadata.getName(i), metadata.get(obj, i));
             }
         } catch (Exception e) {
             logger.error(e.getMessage());
             e.printStackTrace();
         }
-        return map;
+        return map != null ? map : new HashMap<String, Object>();
     }
 
 
+    /**
+     * Description:将对象包装为只读取被访问属性的Map视图，不复制属性值，
+     * 只需要读取少数几个属性时比objectToMap2开销小得多，需要完整拷贝时调用BeanPropertyMap.materialize()
+     *
+     * @param obj 对象
+     * @return 以对象为后端的Map视图，obj为null时返回null
+     * @author dbdu
+     */
+    public static BeanPropertyMap asMap(Object obj) {
+        if (obj == null) {
+            return null;
+        }
+        return new BeanPropertyMap(obj);
+    }
+
     /**
      * Description:使用Introspector进行转换
      * 将Map转换为对象
@@ -119,13 +138,11 @@ public class MapUtil {
         Object obj = null;
 
         try {
-            obj = beanClass.newInstance();
-            BeanInfo beanInfo = Introspector.getBeanInfo(obj.getClass());
-            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : propertyDescriptors) {
-                Method setter = property.getWriteMethod();
-                if (setter != null) {
-                    setter.invoke(obj, map.get(property.getName()));
+            BeanMetadata metadata = BeanMetadata.of(beanClass);
+            obj = metadata.newInstance();
+            for (int i = 0, size = metadata.size(); i < size; i++) {
+                if (metadata.isWritable(i)) {
+                    metadata.set(obj, i, map.get(metadata.getName(i)));
                 }
             }
 
@@ -137,6 +154,199 @@ public class MapUtil {
     }
 
 
+    /**
+     * Description:将Map转换为对象，值会按属性类型自动转换，例如查询参数或者导入文件里字符串形式的数字及日期，
+     * 日期支持DateTimeUtil能识别的格式；每个类的转换计划只编译一次，适合大量数据的转换
+     *
+     * @param map       Map对象
+     * @param beanClass bean的Class
+     * @return 实体对象，map为null时返回null
+     * @throws IllegalArgumentException 值无法转换为属性的类型，或者实体类没有可访问的无参构造器
+     * @author dbdu
+     */
+    public static <T> T mapToObject(Map<String, ?> map, Class<T> beanClass) {
+        if (map == null) {
+            return null;
+        }
+        return BeanPopulator.of(beanClass).populate(map);
+    }
+
+    /**
+     * Description:批量将对象转换为Map，结果同逐个调用objectToMap2；属性元数据每批只解析一次，数据量大时并行转换
+     *
+     * @param objects 对象集合,元素为null时对应的Map也为null
+     * @return Map集合，顺序同对象集合
+     * @author dbdu
+     */
+    public static List<Map<String, Object>> objectsToMaps(List<?> objects) {
+        if (objects == null) {
+            return null;
+        }
+        int size = objects.size();
+        @SuppressWarnings("unchecked")
+        Map<String, Object>[] maps = new Map[size];
+        Object[] source = objects.toArray();
+        BeanMetadata first = size == 0 || source[0] == null ? null : BeanMetadata.of(source[0].getClass());
+        range(size).forEach(i -> {
+            Object obj = source[i];
+            if (obj != null) {
+                BeanMetadata metadata = first != null && first.getBeanClass() == obj.getClass() ? first : BeanMetadata.of(obj.getClass());
+                int count = metadata.size();
+                Map<String, Object> map = new HashMap<String, Object>(BeanMetadata.capacity(count));
+                for (int p = 0; p < count; p++) {
+                    map.put(metadata.getName(p), metadata.get(obj, p));
+                }
+                maps[i] = map;
+            }
+        });
+        return new ArrayList<Map<String, Object>>(Arrays.asList(maps));
+    }
+
+    /**
+     * Description:批量将Map转换为对象，值的类型转换规则同mapToObject，数据量大时并行转换
+     *
+     * @param maps      Map集合,元素为null时对应的对象也为null
+     * @param beanClass bean的Class
+     * @return 对象集合，顺序同Map集合
+     * @throws IllegalArgumentException 值无法转换为属性的类型
+     * @author dbdu
+     */
+    public static <T> List<T> mapsToObjects(List<? extends Map<String, ?>> maps, Class<T> beanClass) {
+        if (maps == null) {
+            return null;
+        }
+        BeanPopulator<T> populator = BeanPopulator.of(beanClass);
+        Object[] source = maps.toArray();
+        Object[] objects = new Object[source.length];
+        range(source.length).forEach(i -> {
+            @SuppressWarnings("unchecked")
+            Map<String, ?> map = (Map<String, ?>) source[i];
+            objects[i] = map == null ? null : populator.populate(map);
+        });
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) (List<?>) new ArrayList<Object>(Arrays.asList(objects));
+        return result;
+    }
+
+    /**
+     * Description:批量将对象转换为列式结构：属性名 -> 该属性所有行的值组成的数组，适合导出及报表。
+     * 基本类型的属性使用基本类型数组(例如long[]、int[]、double[])，其他属性使用Object[]；
+     * 元素为null的行，基本类型列的值为0(false)，其他列为null。数据量大时并行转换
+     *
+     * @param objects   对象集合,元素必须是beanClass的实例
+     * @param beanClass bean的Class
+     * @return 按属性名排序的列，数组长度同对象集合大小
+     * @author dbdu
+     */
+    public static <T> Map<String, Object> objectsToColumns(List<? extends T> objects, Class<T> beanClass) {
+        if (objects == null) {
+            return null;
+        }
+        BeanMetadata metadata = BeanMetadata.of(beanClass);
+        Object[] rows = objects.toArray();
+        int count = metadata.size();
+        Object[] columns = new Object[count];
+        Map<String, Object> result = new LinkedHashMap<String, Object>(BeanMetadata.capacity(count));
+        for (int p = 0; p < count; p++) {
+            Class<?> type = metadata.getType(p);
+            columns[p] = type != null && type.isPrimitive() ? Array.newInstance(type, rows.length) : new Object[rows.length];
+            result.put(metadata.getName(p), columns[p]);
+        }
+        range(rows.length).forEach(i -> {
+            Object obj = rows[i];
+            if (obj == null) {
+                return;
+            }
+            for (int p = 0; p < count; p++) {
+                if (metadata.isReadable(p)) {
+                    setColumnValue(columns[p], i, metadata.get(obj, p));
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Description:将列式结构转换为对象集合，objectsToColumns的逆操作；列可以是任意类型的数组或者List，
+     * 值的类型转换规则同mapToObject，不是实体属性的列忽略。数据量大时并行转换
+     *
+     * @param columns   属性名 -> 该属性所有行的值,各列的长度必须相同
+     * @param beanClass bean的Class
+     * @return 对象集合
+     * @throws IllegalArgumentException 列的长度不一致或者值无法转换为属性的类型
+     * @author dbdu
+     */
+    public static <T> List<T> columnsToObjects(Map<String, ?> columns, Class<T> beanClass) {
+        if (columns == null) {
+            return null;
+        }
+        BeanPopulator<T> populator = BeanPopulator.of(beanClass);
+        List<Integer> indexes = new ArrayList<Integer>(columns.size());
+        List<Object> values = new ArrayList<Object>(columns.size());
+        int rows = -1;
+        for (Map.Entry<String, ?> entry : columns.entrySet()) {
+            int index = populator.indexOf(entry.getKey());
+            Object column = entry.getValue();
+            if (index < 0 || column == null) {
+                continue;
+            }
+            int length = column instanceof List ? ((List<?>) column).size() : Array.getLength(column);
+            if (rows >= 0 && rows != length) {
+                throw new IllegalArgumentException("column [" + entry.getKey() + "] has " + length + " rows, expected " + rows);
+            }
+            rows = length;
+            indexes.add(index);
+            values.add(column);
+        }
+        int count = indexes.size();
+        Object[] objects = new Object[Math.max(rows, 0)];
+        range(objects.length).forEach(i -> {
+            T bean = populator.newInstance();
+            for (int c = 0; c < count; c++) {
+                Object column = values.get(c);
+                Object value = column instanceof List ? ((List<?>) column).get(i) : Array.get(column, i);
+                populator.set(bean, indexes.get(c), value);
+            }
+            objects[i] = bean;
+        });
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) (List<?>) new ArrayList<Object>(Arrays.asList(objects));
+        return result;
+    }
+
+    /**
+     * 批量处理的行号，超过阈值时并行处理
+     */
+    private static IntStream range(int size) {
+        IntStream range = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    /**
+     * 将属性值写入列数组，基本类型数组直接写入,避免装箱的Object[]
+     */
+    private static void setColumnValue(Object column, int row, Object value) {
+        if (column instanceof Object[]) {
+            ((Object[]) column)[row] = value;
+        } else if (column instanceof long[]) {
+            ((long[]) column)[row] = (Long) value;
+        } else if (column instanceof int[]) {
+            ((int[]) column)[row] = (Integer) value;
+        } else if (column instanceof double[]) {
+            ((double[]) column)[row] = (Double) value;
+        } else if (column instanceof boolean[]) {
+            ((boolean[]) column)[row] = (Boolean) value;
+        } else if (column instanceof float[]) {
+            ((float[]) column)[row] = (Float) value;
+        } else if (column instanceof short[]) {
+            ((short[]) column)[row] = (Short) value;
+        } else if (column instanceof byte[]) {
+            ((byte[]) column)[row] = (Byte) value;
+        } else if (column instanceof char[]) {
+            ((char[]) column)[row] = (Character) value;
+        }
+    }
+
     /**
      * Description:使用reflect进行转换
      * 将Map转换为对象，继承而来的属性如果没有默认初始值则为null值。
@@ -191,16 +401,57 @@ public class MapUtil {
      * @author dbdu
      */
     public static String map2Json(Map<String, Object> map) {
-        ObjectMapper mapper = new ObjectMapper();
         String result = null;
         try {
-            result = mapper.writeValueAsString(map);
+            result = ObjectMapperHolder.writerFor(Map.class).writeValueAsString(map);
         } catch (JsonProcessingException e) {
             logger.error(e.getMessage());
         }
         return result;
     }
 
+    /**
+     * Description:将Map集合转换为UTF-8编码的Json字节数组
+     *
+     * @param map Map对象
+     * @return byte[]
+     * @author dbdu
+     */
+    public static byte[] map2JsonBytes(Map<String, Object> map) {
+        byte[] result = null;
+        try {
+            result = ObjectMapperHolder.writerFor(Map.class).writeValueAsBytes(map);
+        } catch (JsonProcessingException e) {
+            logger.error(e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Description:将Map集合直接写入到DataBuffer，不产生中间的字符串
+     *
+     * @param map           Map对象
+     * @param bufferFactory DataBuffer工厂，例如：exchange.getResponse().bufferFactory()
+     * @return DataBuffer 转换失败时返回null
+     * @author dbdu
+     */
+    public static DataBuffer map2Json(Map<String, Object> map, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer();
+        boolean release = true;
+        try (OutputStream out = buffer.asOutputStream()) {
+            ObjectMapperHolder.writerFor(Map.class).writeValue(out, map);
+            release = false;
+            return buffer;
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+            return null;
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
     /**
      * Description: json字符串转为Map对象
      *
@@ -211,11 +462,10 @@ public class MapUtil {
     public static Map json2Map(String json) {
         //Map<String, Map<String, Object>> maps = null;
         Map maps = null;
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
             //将json字符串转成map结合解析出来，这里以解析成map为例
-            maps = objectMapper.readValue(json, Map.class);
-            logger.debug(maps.toString());
+            maps = ObjectMapperHolder.readerFor(Map.class).readValue(json);
+            logger.debug("{}", maps);
         } catch (JsonParseException e) {
             logger.error(e.getMessage());
         } catch (JsonMappingException e) {
@@ -226,4 +476,92 @@ public class MapUtil {
         return maps;
     }
 
+    /**
+     * Description: json字节数组转为Map对象，编码由Jackson自动识别
+     *
+     * @param json json字节数组
+     * @return Map
+     * @author dbdu
+     */
+    public static Map json2Map(byte[] json) {
+        Map maps = null;
+        try {
+            maps = ObjectMapperHolder.readerFor(Map.class).readValue(json);
+            logger.debug("{}", maps);
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+        }
+        return maps;
+    }
+
+    /**
+     * Description: DataBuffer中的json转为Map对象，直接读取DataBuffer的内容，不复制为字符串；
+     * 不会释放传入的DataBuffer，由调用方负责释放
+     *
+     * @param json 包含json的DataBuffer
+     * @return Map
+     * @author dbdu
+     */
+    public static Map json2Map(DataBuffer json) {
+        Map maps = null;
+        try (InputStream in = json.asInputStream()) {
+            maps = ObjectMapperHolder.readerFor(Map.class).readValue(in);
+            logger.debug("{}", maps);
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+        }
+        return maps;
+    }
+
+    /**
+     * Description: 流式解析顶层为数组的json，例如大批量导入的数据，每解析出一个元素就发出一个Map，
+     * 按下游的请求量读取DataBuffer，内存占用只和单个元素的大小有关；顶层是对象时发出一个Map。
+     * 单个元素超过ObjectMapperHolder.setMaxInMemorySize设置的大小或者json格式错误时以错误结束
+     *
+     * @param json json内容的DataBuffer流，例如：request.getBody()
+     * @return 元素的Map流
+     * @author dbdu
+     */
+    public static Flux<Map<String, Object>> json2MapFlux(Flux<DataBuffer> json) {
+        return ObjectMapperHolder.getJsonDecoder().decode(json, MAP_TYPE, null, Collections.emptyMap())
+                .map(MapUtil::castMap);
+    }
+
+    /**
+     * Description: 非阻塞地解析顶层为对象的json，边接收DataBuffer边解析，不需要先拼接成完整的字符串。
+     * 文档超过ObjectMapperHolder.setMaxDocumentSize设置的大小(默认16M，不受Spring编解码器256K的全局限制)
+     * 或者json格式错误时以错误结束
+     *
+     * @param json json内容的DataBuffer流，例如：request.getBody()
+     * @return 解析得到的Map
+     * @author dbdu
+     */
+    public static Mono<Map<String, Object>> json2MapMono(Flux<DataBuffer> json) {
+        return json2MapMono(json, ObjectMapperHolder.getDocumentDecoder());
+    }
+
+    /**
+     * Description: 非阻塞地解析顶层为对象的json，使用指定的文档大小限制，例如只有某个接口需要接收很大的文档
+     *
+     * @param json            json内容的DataBuffer流，例如：request.getBody()
+     * @param maxInMemorySize 文档允许缓存的最大字节数，-1表示不限制
+     * @return 解析得到的Map
+     * @author dbdu
+     */
+    public static Mono<Map<String, Object>> json2MapMono(Flux<DataBuffer> json, int maxInMemorySize) {
+        return json2MapMono(json, ObjectMapperHolder.getJsonDecoder(maxInMemorySize));
+    }
+
+    private static Mono<Map<String, Object>> json2MapMono(Flux<DataBuffer> json, Jackson2JsonDecoder decoder) {
+        // decodeToMono会先把所有DataBuffer拼接起来再解析，这里使用decode，由非阻塞解析器边接收边解析
+        return decoder.decode(json, MAP_TYPE, null, Collections.emptyMap())
+                .singleOrEmpty()
+                .map(MapUtil::castMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
 }
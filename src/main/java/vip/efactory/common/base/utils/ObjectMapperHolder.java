@@ -0,0 +1,177 @@
+package vip.efactory.common.base.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:共享的ObjectMapper持有者，避免每次序列化都创建ObjectMapper而丢失Jackson内部的序列化器缓存。
+ * <p>
+ * 优先使用Spring容器中唯一的(或者标记为@Primary的)ObjectMapper(即WebFlux编解码器使用的那个)，容器中没有或者有多个
+ * 且没有@Primary时使用本类自己的单例；也可以通过setObjectMapper指定。按类型缓存ObjectReader/ObjectWriter，它们都是线程安全的。
+ * <p>
+ * 注意：使用容器中的ObjectMapper时，MapUtil.map2Json/json2Map等方法的输出遵循应用的spring.jackson配置，
+ * 例如Spring Boot默认关闭了WRITE_DATES_AS_TIMESTAMPS，日期不再输出为毫秒数；需要旧的输出时请通过setObjectMapper指定。
+ *
+ * @author dbdu
+ */
+public final class ObjectMapperHolder {
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private static volatile ObjectMapper objectMapper;
+    private static final ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    /**
+     * 流式解码(MapUtil.json2MapFlux)时单个元素(顶层是数组时)或者整个文档允许缓存的最大字节数，默认同Spring的编解码器256K
+     */
+    private static volatile int maxInMemorySize = 256 * 1024;
+    private static volatile Jackson2JsonDecoder jsonDecoder;
+    /**
+     * 解码单个文档(MapUtil.json2MapMono)时允许缓存的最大字节数，默认16M，单独设置，不受上面的限制及Spring编解码器全局配置的影响
+     */
+    private static volatile int maxDocumentSize = 16 * 1024 * 1024;
+    private static volatile Jackson2JsonDecoder documentDecoder;
+
+    private ObjectMapperHolder() {
+    }
+
+    /**
+     * 获取共享的ObjectMapper，不要修改返回的ObjectMapper的配置
+     */
+    public static ObjectMapper getObjectMapper() {
+        ObjectMapper mapper = objectMapper;
+        if (mapper != null) {
+            return mapper;
+        }
+        ApplicationContext applicationContext = SpringContextHolder.getApplicationContext();
+        if (applicationContext == null) {
+            // 容器还没有启动，暂时使用默认的ObjectMapper，容器启动后再从容器中获取
+            return DEFAULT_MAPPER;
+        }
+        synchronized (ObjectMapperHolder.class) {
+            mapper = objectMapper;
+            if (mapper == null) {
+                mapper = applicationContext.getBeanProvider(ObjectMapper.class).getIfUnique(() -> DEFAULT_MAPPER);
+                objectMapper = mapper;
+                jsonDecoder = null;
+                documentDecoder = null;
+                READERS.clear();
+                WRITERS.clear();
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * 指定共享的ObjectMapper，已缓存的ObjectReader/ObjectWriter会被清除
+     */
+    public static synchronized void setObjectMapper(ObjectMapper mapper) {
+        objectMapper = mapper;
+        jsonDecoder = null;
+        documentDecoder = null;
+        READERS.clear();
+        WRITERS.clear();
+    }
+
+    /**
+     * 设置流式解码时单个元素或者整个文档允许缓存的最大字节数，-1表示不限制
+     */
+    public static synchronized void setMaxInMemorySize(int size) {
+        maxInMemorySize = size;
+        jsonDecoder = null;
+    }
+
+    /**
+     * 设置解码单个文档时允许缓存的最大字节数，-1表示不限制
+     */
+    public static synchronized void setMaxDocumentSize(int size) {
+        maxDocumentSize = size;
+        documentDecoder = null;
+    }
+
+    /**
+     * 获取使用共享ObjectMapper的非阻塞Json解码器，基于Jackson的非阻塞解析器逐个DataBuffer解析
+     */
+    public static Jackson2JsonDecoder getJsonDecoder() {
+        ObjectMapper mapper = getObjectMapper();
+        Jackson2JsonDecoder decoder = jsonDecoder;
+        if (decoder == null || decoder.getObjectMapper() != mapper) {
+            decoder = createJsonDecoder(mapper, maxInMemorySize);
+            if (mapper == objectMapper) {
+                jsonDecoder = decoder;
+            }
+        }
+        return decoder;
+    }
+
+    /**
+     * 获取解码单个文档的非阻塞Json解码器，允许缓存的最大字节数由setMaxDocumentSize设置
+     */
+    public static Jackson2JsonDecoder getDocumentDecoder() {
+        ObjectMapper mapper = getObjectMapper();
+        Jackson2JsonDecoder decoder = documentDecoder;
+        if (decoder == null || decoder.getObjectMapper() != mapper) {
+            decoder = createJsonDecoder(mapper, maxDocumentSize);
+            if (mapper == objectMapper) {
+                documentDecoder = decoder;
+            }
+        }
+        return decoder;
+    }
+
+    /**
+     * 获取指定最大缓存字节数的非阻塞Json解码器，每次调用都创建新的解码器，-1表示不限制
+     */
+    public static Jackson2JsonDecoder getJsonDecoder(int maxInMemorySize) {
+        return createJsonDecoder(getObjectMapper(), maxInMemorySize);
+    }
+
+    private static Jackson2JsonDecoder createJsonDecoder(ObjectMapper mapper, int maxInMemorySize) {
+        Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(mapper);
+        decoder.setMaxInMemorySize(maxInMemorySize);
+        return decoder;
+    }
+
+    /**
+     * 清除持有的ObjectMapper及缓存，Spring容器关闭时调用
+     */
+    public static void reset() {
+        setObjectMapper(null);
+    }
+
+    /**
+     * 获取读取指定类型的ObjectReader，按类型缓存
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        ObjectMapper mapper = getObjectMapper();
+        ObjectReader reader = READERS.get(type);
+        if (reader == null) {
+            reader = mapper.readerFor(type);
+            if (mapper == objectMapper) {
+                READERS.putIfAbsent(type, reader);
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * 获取写出指定类型的ObjectWriter，按类型缓存
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        ObjectMapper mapper = getObjectMapper();
+        ObjectWriter writer = WRITERS.get(type);
+        if (writer == null) {
+            writer = mapper.writerFor(type);
+            if (mapper == objectMapper) {
+                WRITERS.putIfAbsent(type, writer);
+            }
+        }
+        return writer;
+    }
+}
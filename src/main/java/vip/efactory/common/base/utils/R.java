@@ -4,8 +4,11 @@ import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
 import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import vip.efactory.common.i18n.enums.CommonEnum;
-import vip.efactory.common.i18n.enums.ErrorCodeUtil;
 import vip.efactory.common.i18n.enums.IBaseErrorEnum;
 
 import java.io.Serializable;
@@ -15,6 +18,7 @@ import java.io.Serializable;
  *
  * @author dbdu
  */
+@Slf4j
 @Builder
 @ToString
 @Accessors(chain = true)
@@ -116,7 +120,7 @@ public class R<T> implements Serializable {
      */
     public static <T> R<T> error(IBaseErrorEnum errorEnum, String... args) {
         if (null != errorEnum) {
-            return R.error(errorEnum.getErrorCode(), ErrorCodeUtil.getMessage(errorEnum, args));
+            return R.error(errorEnum.getErrorCode(), ErrorMessageCache.getMessage(errorEnum, args));
         }
         return genr(CommonEnum.ERROR);
     }
@@ -128,6 +132,41 @@ public class R<T> implements Serializable {
         return genr(data, CommonEnum.ERROR);
     }
 
+    // 流式返回
+
+    /**
+     * Description:把记录流包装为流式响应：header帧、每条记录一个data帧、trailer帧；记录流出错时记录日志，以错误的trailer帧结束，
+     * 其信息为异常信息，没有时为国际化的CommonEnum.ERROR信息。
+     * 配合application/stream+json(每行一个帧)使用，记录产生一条写出一条，不需要在服务端缓存整个响应。
+     * header、正常结束的trailer及默认的错误信息在调用时按当前区域生成。
+     *
+     * @param content 记录流
+     * @return 帧流
+     * @author dbdu
+     */
+    public static <T> Flux<RFrame<T>> stream(Flux<T> content) {
+        R<T> ok = ok();
+        String errorMsg = ErrorMessageCache.getMessage(CommonEnum.ERROR);
+        return Flux.concat(Mono.just(RFrame.<T>header(ok.getCode(), ok.getMsg())),
+                content.map(RFrame::data),
+                Mono.just(RFrame.<T>trailer(ok.getCode(), ok.getMsg())))
+                .onErrorResume(e -> {
+                    log.error("streaming response failed, ended with an error trailer", e);
+                    return Mono.just(RFrame.trailer(CommonEnum.ERROR.getErrorCode(), e.getMessage() == null ? errorMsg : e.getMessage()));
+                });
+    }
+
+    /**
+     * Description:同stream，每个帧包装为Server-Sent Events的一个事件，事件名称为帧类型，配合text/event-stream使用
+     *
+     * @param content 记录流
+     * @return 事件流
+     * @author dbdu
+     */
+    public static <T> Flux<ServerSentEvent<RFrame<T>>> sse(Flux<T> content) {
+        return stream(content).map(frame -> ServerSentEvent.builder(frame).event(frame.getType()).build());
+    }
+
 //    /**
 //     * Description:使用国际化的枚举信息
 //     *
@@ -152,8 +191,8 @@ public class R<T> implements Serializable {
      */
     private static <T> R<T> genr(IBaseErrorEnum errorEnum, String... args) {
 //        return genr(null, errorEnum.getErrorCode(), errorEnum.getReason());
-        // 使用国际化的信息
-        return genr(null, errorEnum.getErrorCode(), ErrorCodeUtil.getMessage(errorEnum, args));
+        // 使用国际化的信息，按区域缓存，参见ErrorMessageCache
+        return genr(null, errorEnum.getErrorCode(), ErrorMessageCache.getMessage(errorEnum, args));
     }
 
     /**
@@ -165,7 +204,7 @@ public class R<T> implements Serializable {
      * @return R 响应的对象包装
      */
     private static <T> R<T> genr(T data, IBaseErrorEnum errorEnum, String... args) {
-        return genr(data, errorEnum.getErrorCode(), ErrorCodeUtil.getMessage(errorEnum, args));
+        return genr(data, errorEnum.getErrorCode(), ErrorMessageCache.getMessage(errorEnum, args));
     }
 
     /**
@@ -0,0 +1,55 @@
+package vip.efactory.common.base.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Description:流式响应的帧，参见R.stream及R.sse。一个流式响应依次是：
+ * 一个header帧(code、msg)，每条记录一个data帧，最后一个trailer帧(最终的code、msg，出错时为错误码及错误信息)。
+ * 客户端收到trailer帧才说明响应是完整的。值为null的属性不输出。
+ *
+ * @author dbdu
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@ApiModel(value = "流式响应帧", description = "流式响应的头、数据及结尾")
+public class RFrame<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String TYPE_HEADER = "header";
+    public static final String TYPE_DATA = "data";
+    public static final String TYPE_TRAILER = "trailer";
+
+    // 帧类型: header、data、trailer
+    @ApiModelProperty(value = "帧类型:header,data,trailer", name = "type")
+    private String type;
+    // 响应码,只有header及trailer帧有
+    @ApiModelProperty(value = "响应码,0正常", name = "code")
+    private Integer code;
+    // 响应描述信息,只有header及trailer帧有
+    @ApiModelProperty(value = "响应描述信息", name = "msg")
+    private String msg;
+    // 一条记录,只有data帧有
+    @ApiModelProperty(value = "一条记录", name = "data")
+    private T data;
+
+    public static <T> RFrame<T> header(int code, String msg) {
+        return new RFrame<>(TYPE_HEADER, code, msg, null);
+    }
+
+    public static <T> RFrame<T> data(T data) {
+        return new RFrame<>(TYPE_DATA, null, null, data);
+    }
+
+    public static <T> RFrame<T> trailer(int code, String msg) {
+        return new RFrame<>(TYPE_TRAILER, code, msg, null);
+    }
+}
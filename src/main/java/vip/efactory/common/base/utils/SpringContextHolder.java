@@ -84,6 +84,7 @@ public class SpringContextHolder implements ApplicationContextAware, DisposableB
             log.debug("清除SpringContextHolder中的ApplicationContext:" + applicationContext);
         }
         applicationContext = null;
+        ObjectMapperHolder.reset();
     }
 
     /**
@@ -1,13 +1,26 @@
 package vip.efactory.common.base.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.validator.messageinterpolation.ResourceBundleMessageInterpolator;
-import org.hibernate.validator.resourceloading.PlatformResourceBundleLocator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
-import vip.efactory.common.base.valid.LocalizedMessageInterpolator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import vip.efactory.common.base.valid.ConstraintFailure;
+import vip.efactory.common.base.valid.GeneratedValidator;
+import vip.efactory.common.base.valid.GeneratedValidatorSupport;
+import vip.efactory.common.base.valid.MessageTemplateEngine;
+import vip.efactory.common.base.valid.ValidationErrors;
+import vip.efactory.common.base.valid.ValidationResult;
+import vip.efactory.common.base.valid.ValidatorEngine;
 import vip.efactory.common.i18n.service.ILocaleMsgSourceService;
 
 import javax.validation.*;
@@ -20,8 +33,28 @@ import java.util.*;
  */
 @Component
 @Slf4j
-public class ValidateModelUtil {
+public class ValidateModelUtil implements InitializingBean, DisposableBean {
+    /**
+     * Reactor Context中存放国际化区域的key，参见LocaleContextWebFilter
+     */
+    public static final Class<Locale> LOCALE_CONTEXT_KEY = Locale.class;
+
     private static ILocaleMsgSourceService localeMessageSourceService;
+    /**
+     * 校验信息模板引擎，模板按国际化区域编译一次后缓存
+     */
+    private static final MessageTemplateEngine MESSAGE_TEMPLATES = new MessageTemplateEngine(ValidateModelUtil::resolveMessageKey);
+
+    /**
+     * 启动时需要预加载约束元数据的实体类全名,多个用逗号分隔
+     */
+    private String[] preloadClasses = new String[0];
+
+    /**
+     * 响应式校验时,专用调度器的最大线程数,即并行度
+     */
+    private static int parallelism = Runtime.getRuntime().availableProcessors();
+    private static volatile Scheduler validationScheduler;
 
     /**
      * 通过下面的方法为静态成员赋值!!!
@@ -31,6 +64,52 @@ public class ValidateModelUtil {
     @Autowired
     public void setLocaleMessageSourceService(ILocaleMsgSourceService localeMessageSourceService) {
         ValidateModelUtil.localeMessageSourceService = localeMessageSourceService;
+        MESSAGE_TEMPLATES.clear();
+    }
+
+    @Value("${efactory.validation.preload-classes:}")
+    public void setPreloadClasses(String[] preloadClasses) {
+        this.preloadClasses = preloadClasses;
+    }
+
+    @Value("${efactory.validation.parallelism:0}")
+    public void setParallelism(int parallelism) {
+        if (parallelism > 0) {
+            ValidateModelUtil.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * 启动时初始化校验引擎，并预加载配置的实体类的约束元数据
+     */
+    @Override
+    public void afterPropertiesSet() {
+        ValidatorEngine engine = ValidatorEngine.getInstance();
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        for (String className : preloadClasses) {
+            if (StringUtils.isEmpty(className) || className.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                engine.preload(ClassUtils.forName(className.trim(), classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("preload validation class [{}] failed: {}", className, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 实现DisposableBean接口, 在Context关闭时关闭校验引擎.
+     */
+    @Override
+    public void destroy() {
+        ValidatorEngine.shutdown();
+        synchronized (ValidateModelUtil.class) {
+            if (validationScheduler != null) {
+                validationScheduler.dispose();
+                validationScheduler = null;
+            }
+        }
     }
 
 
@@ -42,18 +121,39 @@ public class ValidateModelUtil {
      * @return 返回的错误信息
      */
     public static Map<String, String> validateModel(Object obj, Class<?>... groups) {
+        return validateModel(obj, LocaleContextHolder.getLocale(), groups);
+    }
+
+    /**
+     * 使用指定的国际化区域验证某一个对象,可以指定激活哪个校验组，例如Update.class
+     *
+     * @param obj    被验证的对象
+     * @param locale 国际化区域
+     * @param groups 使用的验证组
+     * @return 返回的错误信息
+     */
+    public static Map<String, String> validateModel(Object obj, Locale locale, Class<?>... groups) {
 
         //用于存储验证后的错误信息
         Map<String, String> errors = new TreeMap<>();
 
+        // 优先使用注解处理器编译期生成的校验器，省去运行时反射解析约束元数据
+        if (obj != null) {
+            GeneratedValidator<Object> generated = GeneratedValidatorSupport.find(obj.getClass());
+            if (generated != null && GeneratedValidatorSupport.supportsGroups(groups)) {
+                ValidatorEngine engine = ValidatorEngine.getInstance();
+                for (ConstraintFailure failure : generated.validate(obj, groups)) {
+                    String message = engine.interpolate(failure, locale);
+                    errors.put(failure.getProperty(), MESSAGE_TEMPLATES.render(message, locale, failure.getAttributes()));
+                }
+                return errors;
+            }
+        }
+
         // Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
         // 这种方式如果校验注解，用户没有指定自定义的信息，框架就会取JVM默认的国际化区域参数值，不是我们想要的那种跟随Header头变化的国际化区域方式
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        // 这里使用我们自己定义的LocalizedMessageInterpolator消息模板解释器，从而达到获取的校验属性跟随国际化区域变化而变化的目的
-        // 此处参考:https://developer.ibm.com/zh/technologies/java/articles/j-cn-hibernate-validator/
-        MessageInterpolator interpolator = new LocalizedMessageInterpolator(new ResourceBundleMessageInterpolator(new PlatformResourceBundleLocator("ValidationMessages")), LocaleContextHolder.getLocale());
-        Validator validator = factory.usingContext().messageInterpolator(interpolator).getValidator();
+        // 因此从校验引擎中获取跟随国际化区域的Validator，引擎只引导一次ValidatorFactory并按区域缓存Validator
+        Validator validator = ValidatorEngine.getInstance().getValidator(locale);
 
         //验证某个对象,，其实也可以只验证其中的某一个属性的
         Set<ConstraintViolation<Object>> constraintViolations = validator.validate(obj, groups);
@@ -66,66 +166,193 @@ public class ValidateModelUtil {
             // 得到检查注解里的参数
             Map<String, Object> params = currentObj.getConstraintDescriptor().getAttributes();
             // 注意:currentObj.getMessage()得到的信息是message属性用户定义的值或者是已经默认的国际化的值。
-            String message = currentObj.getMessage();
+            // 例如：message="AAA{student.age}BBB {property.not.allow.negative}CCCC"，国际化信息里的{min}-{max}使用注解自带的属性值替换
+            String message = MESSAGE_TEMPLATES.render(currentObj.getMessage(), locale, params);
             // 错误信息对应的字段名
             String property = currentObj.getPropertyPath().toString();
 
             // log.info("property：" + property + ",check failed:" + message);
+            errors.put(property, message);
+        }
+        return errors;
+    }
 
-            // 处理属性切分,例如：message="AAA{student.age}BBB {property.not.allow.negative}CCCC"
-            // 说明包含占位符{}
-            if (message.contains("{") && message.contains("}")) {
-                //得到：AAA{student.age、BBB {property.not.allow.negative、CCCC
-                String[] rawKeys = message.split("}");
-                // 得到所有的key
-                List<String> keys = new ArrayList<>();
-                for (String rawKey : rawKeys) {
-                    if (rawKey.contains("{")) {
-                        //获取key,例如：student.age
-                        String key = rawKey.substring(rawKey.lastIndexOf("{") + 1);
-                        keys.add(key);
-                    }
-                }
-                // 替换message里的占位符
-                for (String key : keys) {
-                    String value = localeMessageSourceService.getMessage(key, LocaleContextHolder.getLocale());
-                    if (StringUtils.isEmpty(value) || value.equals(key)) {
-                        value = key;
-                        log.warn("missing key [{}]", key);
-                    }
-                    message = message.replace("{" + key + "}", value);
-                }
+    /**
+     * 快速失败地验证某一个对象,发现第一个不满足的约束就停止校验，适合只需要知道是否通过或者只展示一条错误的场景
+     *
+     * @param obj    被验证的对象
+     * @param groups 使用的验证组
+     * @return 返回的错误信息，最多一条
+     */
+    public static ValidationErrors validateFirst(Object obj, Class<?>... groups) {
+        return validateFirst(obj, LocaleContextHolder.getLocale(), groups);
+    }
 
-                // 替换message 里国际化信息里的占位符,使用注解自带的属性值占位，例如：{min}-{max}
-                if (message.contains("{") && message.contains("}")) {
-                    // 再次替换模板里的占位符
-                    for (Map.Entry param : params.entrySet()) {
-                        message = message.replace("{" + param.getKey() + "}", param.getValue().toString());
-                    }
+    /**
+     * 使用指定的国际化区域快速失败地验证某一个对象
+     *
+     * @param obj    被验证的对象
+     * @param locale 国际化区域
+     * @param groups 使用的验证组
+     * @return 返回的错误信息，最多一条
+     */
+    public static ValidationErrors validateFirst(Object obj, Locale locale, Class<?>... groups) {
+        if (obj != null) {
+            GeneratedValidator<Object> generated = GeneratedValidatorSupport.find(obj.getClass());
+            if (generated != null && GeneratedValidatorSupport.supportsGroups(groups)) {
+                List<ConstraintFailure> failures = generated.validate(obj, groups);
+                if (failures.isEmpty()) {
+                    return ValidationErrors.EMPTY;
                 }
-
-                errors.put(property, message);
-            } else {
-                //是硬编码的校验信息，直接取过来
-                errors.put(property, message);
+                ConstraintFailure failure = failures.get(0);
+                String message = ValidatorEngine.getInstance().interpolate(failure, locale);
+                return ValidationErrors.of(failure.getProperty(), MESSAGE_TEMPLATES.render(message, locale, failure.getAttributes()));
             }
+        }
+        Validator validator = ValidatorEngine.getInstance().getValidator(locale, true);
+        return toErrors(validator.validate(obj, groups), locale);
+    }
 
+    /**
+     * 只验证对象的某一个属性,例如PATCH请求只修改了部分属性
+     *
+     * @param obj          被验证的对象
+     * @param propertyName 属性名
+     * @param groups       使用的验证组
+     * @return 返回的错误信息
+     */
+    public static ValidationErrors validateProperty(Object obj, String propertyName, Class<?>... groups) {
+        return validateProperty(obj, propertyName, LocaleContextHolder.getLocale(), groups);
+    }
+
+    /**
+     * 使用指定的国际化区域只验证对象的某一个属性
+     *
+     * @param obj          被验证的对象
+     * @param propertyName 属性名
+     * @param locale       国际化区域
+     * @param groups       使用的验证组
+     * @return 返回的错误信息
+     */
+    public static ValidationErrors validateProperty(Object obj, String propertyName, Locale locale, Class<?>... groups) {
+        Validator validator = ValidatorEngine.getInstance().getValidator(locale);
+        return toErrors(validator.validateProperty(obj, propertyName, groups), locale);
+    }
+
+    /**
+     * 验证某个值是否满足实体类某一个属性的约束,不需要创建实体对象，例如表单字段的实时校验
+     *
+     * @param beanType     实体类
+     * @param propertyName 属性名
+     * @param value        需要验证的值
+     * @param groups       使用的验证组
+     * @return 返回的错误信息
+     */
+    public static <T> ValidationErrors validateValue(Class<T> beanType, String propertyName, Object value, Class<?>... groups) {
+        return validateValue(beanType, propertyName, value, LocaleContextHolder.getLocale(), groups);
+    }
+
+    /**
+     * 使用指定的国际化区域验证某个值是否满足实体类某一个属性的约束
+     *
+     * @param beanType     实体类
+     * @param propertyName 属性名
+     * @param value        需要验证的值
+     * @param locale       国际化区域
+     * @param groups       使用的验证组
+     * @return 返回的错误信息
+     */
+    public static <T> ValidationErrors validateValue(Class<T> beanType, String propertyName, Object value, Locale locale, Class<?>... groups) {
+        Validator validator = ValidatorEngine.getInstance().getValidator(locale);
+        return toErrors(validator.validateValue(beanType, propertyName, value, groups), locale);
+    }
+
+    /**
+     * 响应式地验证某一个对象,国际化区域从Reactor Context中获取，在当前线程上直接校验，适合普通大小的对象
+     *
+     * @param obj    被验证的对象
+     * @param groups 使用的验证组
+     * @return 返回的错误信息
+     */
+    public static Mono<Map<String, String>> validate(Object obj, Class<?>... groups) {
+        return Mono.subscriberContext().map(ctx -> validateModel(obj, getLocale(ctx), groups));
+    }
+
+    /**
+     * 响应式地验证某一个对象,校验放到有界的专用调度器上执行，适合对象图很大的请求体，避免占用事件循环线程
+     *
+     * @param obj    被验证的对象
+     * @param groups 使用的验证组
+     * @return 返回的错误信息
+     */
+    public static Mono<Map<String, String>> validateOffloaded(Object obj, Class<?>... groups) {
+        return validate(obj, groups).subscribeOn(getValidationScheduler());
+    }
+
+    /**
+     * 响应式地批量验证对象,例如批量导入的数据，校验在有界的专用调度器上并行执行，结果按输入的顺序输出
+     *
+     * @param objects 被验证的对象流
+     * @param groups  使用的验证组
+     * @return 每个对象的校验结果
+     */
+    public static Flux<ValidationResult> validateAll(Flux<?> objects, Class<?>... groups) {
+        return Mono.subscriberContext().flatMapMany(ctx -> {
+            Locale locale = getLocale(ctx);
+            Scheduler scheduler = getValidationScheduler();
+            return objects.index().flatMapSequential(tuple -> Mono.fromCallable(() ->
+                    new ValidationResult(tuple.getT1(), tuple.getT2(), validateModel(tuple.getT2(), locale, groups)))
+                    .subscribeOn(scheduler), parallelism);
+        });
+    }
+
+    /**
+     * 将校验框架的结果转换为紧凑的错误信息，没有错误时不创建任何集合
+     */
+    private static <T> ValidationErrors toErrors(Set<ConstraintViolation<T>> constraintViolations, Locale locale) {
+        if (constraintViolations.isEmpty()) {
+            return ValidationErrors.EMPTY;
         }
-        return errors;
+        ValidationErrors.Builder errors = ValidationErrors.builder();
+        for (ConstraintViolation<T> violation : constraintViolations) {
+            Map<String, Object> params = violation.getConstraintDescriptor().getAttributes();
+            errors.add(violation.getPropertyPath().toString(), MESSAGE_TEMPLATES.render(violation.getMessage(), locale, params));
+        }
+        return errors.build();
+    }
+
+    /**
+     * 从Reactor Context中获取国际化区域,没有时退回LocaleContextHolder
+     */
+    private static Locale getLocale(Context ctx) {
+        Locale locale = ctx.getOrDefault(LOCALE_CONTEXT_KEY, null);
+        return locale != null ? locale : LocaleContextHolder.getLocale();
     }
 
-    public static void main(String[] args) {
-        String message = "AAA{student.age}BBB {property.not.allow.negative}CCCC";
-        String[] rawKeys = message.split("}"); //得到：AAA{student.age、BBB {property.not.allow.negative、CCCC
-        List<String> keys = new ArrayList<>();
-        for (String rawKey : rawKeys) {
-            if (rawKey.contains("{")) {
-                String key = rawKey.substring(rawKey.lastIndexOf("{") + 1); //获取key,例如：student.age
-                keys.add(key);
+    /**
+     * 获取校验专用的有界调度器,首次使用时创建
+     */
+    private static Scheduler getValidationScheduler() {
+        Scheduler scheduler = validationScheduler;
+        if (scheduler == null) {
+            synchronized (ValidateModelUtil.class) {
+                scheduler = validationScheduler;
+                if (scheduler == null) {
+                    scheduler = Schedulers.newBoundedElastic(parallelism, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "validation");
+                    validationScheduler = scheduler;
+                }
             }
         }
+        return scheduler;
+    }
 
-        System.out.println(keys);
-
+    /**
+     * 解析校验信息里的国际化key
+     */
+    private static String resolveMessageKey(String key, Locale locale) {
+        if (localeMessageSourceService == null) {
+            return key;
+        }
+        return localeMessageSourceService.getMessage(key, locale);
     }
 }
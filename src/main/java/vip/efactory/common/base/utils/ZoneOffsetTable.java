@@ -0,0 +1,197 @@
+package vip.efactory.common.base.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Description:时区的本地时间和UTC之间的换算表，每个时区只根据ZoneRules生成一次夏令时等切换点，
+ * 之后本地时间换算为UTC、UTC换算为本地时间都只需要一次二分查找，不需要创建LocalDateTime、ZonedDateTime。
+ * <p>
+ * 切换点覆盖到MAX_YEAR年，超出范围时退回ZonedDateTime.ofLocal。
+ * 本地时间落在切换造成的空档(夏令时开始)中时使用切换前的偏移量，落在重叠(夏令时结束)中时使用切换后的偏移量，
+ * 和SimpleDateFormat(java.util.Calendar)的规则相同。
+ *
+ * @author dbdu
+ */
+final class ZoneOffsetTable {
+    /**
+     * 切换点表覆盖的最大年份
+     */
+    static final int MAX_YEAR = 2100;
+
+    private static final ConcurrentMap<ZoneId, ZoneOffsetTable> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 最近使用的换算表，通常整个应用只使用默认时区，省去一次Map查找
+     */
+    private static volatile ZoneOffsetTable last;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    /**
+     * 是否是固定偏移量的时区(以ZoneRules为准)，及其偏移秒数
+     */
+    private final boolean fixed;
+    private final int fixedOffset;
+    /**
+     * 每个切换点受影响的本地时间区间[localStarts, localEnds)，及切换前后的偏移秒数，按时间排序
+     */
+    private final long[] localStarts;
+    /**
+     * 每个切换点的UTC秒数
+     */
+    private final long[] epochSeconds;
+    private final long[] localEnds;
+    private final int[] offsetsBefore;
+    private final int[] offsetsAfter;
+    /**
+     * 表覆盖的本地时间上限(秒)，即MAX_YEAR+1年1月1日
+     */
+    private final long localLimit;
+    /**
+     * 表覆盖的UTC时间上限(秒)，保守地取localLimit的前一天
+     */
+    private final long epochLimit;
+
+    private ZoneOffsetTable(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fixed = rules.isFixedOffset();
+        this.fixedOffset = fixed ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+        this.localLimit = LocalDateTime.of(MAX_YEAR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        this.epochLimit = localLimit - 86400L;
+        List<ZoneOffsetTransition> transitions = new ArrayList<>(rules.getTransitions());
+        List<ZoneOffsetTransitionRule> transitionRules = rules.getTransitionRules();
+        if (!transitionRules.isEmpty()) {
+            int fromYear = transitions.isEmpty() ? 1900
+                    : transitions.get(transitions.size() - 1).getDateTimeAfter().getYear() + 1;
+            long lastEpoch = transitions.isEmpty() ? Long.MIN_VALUE : transitions.get(transitions.size() - 1).toEpochSecond();
+            for (int year = fromYear - 1; year <= MAX_YEAR; year++) {
+                for (ZoneOffsetTransitionRule rule : transitionRules) {
+                    ZoneOffsetTransition transition = rule.createTransition(year);
+                    if (transition.toEpochSecond() > lastEpoch) {
+                        transitions.add(transition);
+                    }
+                }
+            }
+            transitions.sort(null);
+        }
+        int size = transitions.size();
+        this.localStarts = new long[size];
+        this.localEnds = new long[size];
+        this.epochSeconds = new long[size];
+        this.offsetsBefore = new int[size];
+        this.offsetsAfter = new int[size];
+        for (int i = 0; i < size; i++) {
+            ZoneOffsetTransition transition = transitions.get(i);
+            long before = transition.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC);
+            long after = transition.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC);
+            localStarts[i] = Math.min(before, after);
+            localEnds[i] = Math.max(before, after);
+            epochSeconds[i] = transition.toEpochSecond();
+            offsetsBefore[i] = transition.getOffsetBefore().getTotalSeconds();
+            offsetsAfter[i] = transition.getOffsetAfter().getTotalSeconds();
+        }
+    }
+
+    /**
+     * 获取时区的换算表，每个时区只生成一次
+     */
+    static ZoneOffsetTable of(ZoneId zone) {
+        ZoneOffsetTable table = last;
+        if (table != null && table.zone.equals(zone)) {
+            return table;
+        }
+        table = CACHE.get(zone);
+        if (table == null) {
+            table = CACHE.computeIfAbsent(zone, ZoneOffsetTable::new);
+        }
+        last = table;
+        return table;
+    }
+
+    ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 本地时间(以UTC表示的秒数)换算为UTC的秒数
+     */
+    long toEpochSecond(long localSecond) {
+        if (fixed) {
+            return localSecond - fixedOffset;
+        }
+        return localSecond - offsetOfLocal(localSecond);
+    }
+
+    /**
+     * 本地时间(以UTC表示的秒数)对应的偏移秒数
+     */
+    int offsetOfLocal(long localSecond) {
+        if (fixed) {
+            return fixedOffset;
+        }
+        int size = localStarts.length;
+        if (localSecond >= localLimit || size == 0) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+            return ZonedDateTime.ofLocal(local, zone, null).withLaterOffsetAtOverlap().getOffset().getTotalSeconds();
+        }
+        // 最后一个localStarts <= localSecond的切换点
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (localStarts[mid] <= localSecond) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return offsetsBefore[0];
+        }
+        if (localSecond >= localEnds[found]) {
+            return offsetsAfter[found];
+        }
+        // 空档中使用切换前的偏移量，重叠中使用切换后的偏移量
+        return offsetsAfter[found] > offsetsBefore[found] ? offsetsBefore[found] : offsetsAfter[found];
+    }
+
+    /**
+     * UTC秒数对应的偏移秒数，结果同ZoneRules.getOffset
+     */
+    int offsetOfEpoch(long epochSecond) {
+        if (fixed) {
+            return fixedOffset;
+        }
+        int size = epochSeconds.length;
+        if (epochSecond >= epochLimit || size == 0) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        // 最后一个epochSeconds <= epochSecond的切换点
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (epochSeconds[mid] <= epochSecond) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? offsetsBefore[0] : offsetsAfter[found];
+    }
+}
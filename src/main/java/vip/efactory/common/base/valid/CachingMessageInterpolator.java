@@ -0,0 +1,289 @@
+package vip.efactory.common.base.valid;
+
+import org.hibernate.validator.messageinterpolation.HibernateMessageInterpolatorContext;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.hibernate.validator.messageinterpolation.ResourceBundleMessageInterpolator;
+import org.hibernate.validator.resourceloading.PlatformResourceBundleLocator;
+import org.hibernate.validator.spi.resourceloading.ResourceBundleLocator;
+
+import javax.validation.MessageInterpolator;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Description:带缓存的国际化消息模板解释器，按(模板,国际化区域,注解属性)缓存解释后的信息，
+ * 结果与ResourceBundleMessageInterpolator完全一致。
+ * <p>
+ * 模板及其引用的资源文件信息里没有EL表达式(${...})时，使用不依赖EL的ParameterMessageInterpolator，
+ * 只有遇到EL表达式时才创建ResourceBundleMessageInterpolator，从而不启动EL引擎；
+ * 引用了validatedValue的EL表达式结果和被校验的值有关，这类信息不缓存。
+ *
+ * @author dbdu
+ */
+public class CachingMessageInterpolator implements MessageInterpolator {
+    /**
+     * 默认最多缓存的解释结果数量，超出后不再缓存新的结果
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    private static final String DEFAULT_VALIDATION_MESSAGES = "org.hibernate.validator.ValidationMessages";
+    private static final String CONTRIBUTOR_VALIDATION_MESSAGES = "ContributorValidationMessages";
+    private static final String VALIDATED_VALUE = "validatedValue";
+
+    /**
+     * 两个解释器都读取默认的用户资源文件ValidationMessages，不支持指定其他资源文件：
+     * ParameterMessageInterpolator没有接收ResourceBundleLocator的公开构造器，指定后两条路径的结果会不一致
+     */
+    private final ResourceBundleLocator userLocator = new PlatformResourceBundleLocator(ValidatorEngine.USER_VALIDATION_MESSAGES);
+    private final ResourceBundleLocator contributorLocator = new PlatformResourceBundleLocator(CONTRIBUTOR_VALIDATION_MESSAGES, null, true);
+    private final ResourceBundleLocator defaultLocator = new PlatformResourceBundleLocator(DEFAULT_VALIDATION_MESSAGES);
+    private final MessageInterpolator parameterInterpolator = new ParameterMessageInterpolator();
+    private volatile MessageInterpolator elInterpolator;
+
+    private final ConcurrentMap<TemplateKey, TemplateKind> templateKinds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ResultKey, String> results = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncached = new LongAdder();
+
+    public CachingMessageInterpolator() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingMessageInterpolator(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context) {
+        return interpolate(messageTemplate, context, Locale.getDefault());
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context, Locale locale) {
+        TemplateKind kind = getTemplateKind(messageTemplate, locale);
+        MessageInterpolator delegate = kind.requiresEl ? getElInterpolator() : parameterInterpolator;
+        if (kind.dependsOnValue) {
+            uncached.increment();
+            return delegate.interpolate(messageTemplate, context, locale);
+        }
+
+        Map<String, Object> messageParameters = Collections.emptyMap();
+        Map<String, Object> expressionVariables = Collections.emptyMap();
+        if (context instanceof HibernateMessageInterpolatorContext) {
+            HibernateMessageInterpolatorContext hibernateContext = (HibernateMessageInterpolatorContext) context;
+            messageParameters = hibernateContext.getMessageParameters();
+            expressionVariables = hibernateContext.getExpressionVariables();
+        }
+        ResultKey key = new ResultKey(messageTemplate, locale, context.getConstraintDescriptor().getAttributes(), messageParameters, expressionVariables);
+        String result = results.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = delegate.interpolate(messageTemplate, context, locale);
+        if (results.size() < maxEntries) {
+            results.putIfAbsent(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 缓存未命中次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 因为引用了被校验的值而不能缓存的解释次数
+     */
+    public long getUncachedCount() {
+        return uncached.sum();
+    }
+
+    /**
+     * 缓存命中率,没有请求时为0
+     */
+    public double getHitRatio() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * 当前缓存的解释结果数量
+     */
+    public int getCacheSize() {
+        return results.size();
+    }
+
+    /**
+     * 清空缓存，资源文件重新加载后需要调用
+     */
+    public void clear() {
+        templateKinds.clear();
+        results.clear();
+    }
+
+    private MessageInterpolator getElInterpolator() {
+        MessageInterpolator interpolator = elInterpolator;
+        if (interpolator == null) {
+            synchronized (this) {
+                interpolator = elInterpolator;
+                if (interpolator == null) {
+                    interpolator = new ResourceBundleMessageInterpolator(userLocator);
+                    elInterpolator = interpolator;
+                }
+            }
+        }
+        return interpolator;
+    }
+
+    private TemplateKind getTemplateKind(String messageTemplate, Locale locale) {
+        TemplateKey key = new TemplateKey(messageTemplate, locale);
+        TemplateKind kind = templateKinds.get(key);
+        if (kind == null) {
+            kind = analyze(messageTemplate, locale);
+            if (templateKinds.size() < maxEntries) {
+                templateKinds.putIfAbsent(key, kind);
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * 分析模板及其引用的资源文件信息中是否有EL表达式，以及是否引用了被校验的值。
+     * 只要出现了$就按EL处理，宁可多走EL也不能漏掉。
+     */
+    private TemplateKind analyze(String messageTemplate, Locale locale) {
+        List<ResourceBundle> bundles = new ArrayList<>(3);
+        for (ResourceBundleLocator locator : Arrays.asList(userLocator, contributorLocator, defaultLocator)) {
+            ResourceBundle bundle = locator.getResourceBundle(locale);
+            if (bundle != null) {
+                bundles.add(bundle);
+            }
+        }
+        boolean requiresEl = false;
+        boolean dependsOnValue = false;
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(messageTemplate);
+        while (!pending.isEmpty()) {
+            String text = pending.pop();
+            if (text.indexOf('$') >= 0) {
+                requiresEl = true;
+                dependsOnValue |= text.contains(VALIDATED_VALUE);
+            }
+            int close;
+            int start = 0;
+            while ((close = text.indexOf('}', start)) >= 0) {
+                int open = text.lastIndexOf('{', close);
+                if (open >= start) {
+                    String key = text.substring(open + 1, close);
+                    if (visited.add(key)) {
+                        for (ResourceBundle bundle : bundles) {
+                            if (bundle.containsKey(key)) {
+                                pending.push(bundle.getString(key));
+                            }
+                        }
+                    }
+                }
+                start = close + 1;
+            }
+        }
+        return new TemplateKind(requiresEl, dependsOnValue);
+    }
+
+    private static final class TemplateKind {
+        private final boolean requiresEl;
+        private final boolean dependsOnValue;
+
+        TemplateKind(boolean requiresEl, boolean dependsOnValue) {
+            this.requiresEl = requiresEl;
+            this.dependsOnValue = dependsOnValue;
+        }
+    }
+
+    private static final class TemplateKey {
+        private final String template;
+        private final Locale locale;
+        private final int hash;
+
+        TemplateKey(String template, Locale locale) {
+            this.template = template;
+            this.locale = locale;
+            this.hash = 31 * template.hashCode() + Objects.hashCode(locale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) o;
+            return template.equals(other.template) && Objects.equals(locale, other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 解释结果的缓存key，注解属性以及Hibernate Validator的消息参数、表达式变量共同组成属性指纹
+     */
+    private static final class ResultKey {
+        private final String template;
+        private final Locale locale;
+        private final Map<String, Object> attributes;
+        private final Map<String, Object> messageParameters;
+        private final Map<String, Object> expressionVariables;
+        private final int hash;
+
+        ResultKey(String template, Locale locale, Map<String, Object> attributes,
+                  Map<String, Object> messageParameters, Map<String, Object> expressionVariables) {
+            this.template = template;
+            this.locale = locale;
+            this.attributes = attributes;
+            this.messageParameters = messageParameters;
+            this.expressionVariables = expressionVariables;
+            this.hash = Objects.hash(template, locale, attributes, messageParameters, expressionVariables);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return template.equals(other.template) && Objects.equals(locale, other.locale)
+                    && Objects.equals(attributes, other.attributes)
+                    && Objects.equals(messageParameters, other.messageParameters)
+                    && Objects.equals(expressionVariables, other.expressionVariables);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package vip.efactory.common.base.valid;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 生成的校验器发现的一个不满足的约束
+ *
+ * @author dbdu
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConstraintFailure {
+    /**
+     * 属性名
+     */
+    private final String property;
+
+    /**
+     * 校验注解的message属性,即消息模板
+     */
+    private final String messageTemplate;
+
+    /**
+     * 校验注解的全部属性,用于替换消息模板里的占位符,例如：{min}-{max}
+     */
+    private final Map<String, Object> attributes;
+
+    /**
+     * 不满足约束的属性值
+     */
+    private final Object invalidValue;
+}
@@ -0,0 +1,27 @@
+package vip.efactory.common.base.valid;
+
+import java.util.List;
+
+/**
+ * Description:由ValidatorProcessor注解处理器在编译期为实体生成的校验器，
+ * 直接读取字段并判断约束，不需要在运行时反射解析约束元数据。
+ * 生成的类与实体在同一个包下，类名为实体类的二进制名加上{@link #CLASS_SUFFIX}。
+ *
+ * @param <T> 被校验的实体类型
+ * @author dbdu
+ */
+public interface GeneratedValidator<T> {
+    /**
+     * 生成的校验器类名后缀，例如：UserDto_GeneratedValidator
+     */
+    String CLASS_SUFFIX = "_GeneratedValidator";
+
+    /**
+     * 校验实体
+     *
+     * @param bean   被校验的实体
+     * @param groups 使用的验证组,为空时使用Default组
+     * @return 不满足的约束,全部满足时为空集合
+     */
+    List<ConstraintFailure> validate(T bean, Class<?>... groups);
+}
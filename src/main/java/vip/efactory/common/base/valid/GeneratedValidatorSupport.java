@@ -0,0 +1,251 @@
+package vip.efactory.common.base.valid;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.ConstraintTarget;
+import javax.validation.ConstraintValidator;
+import javax.validation.GroupSequence;
+import javax.validation.MessageInterpolator;
+import javax.validation.Payload;
+import javax.validation.ValidationException;
+import javax.validation.groups.Default;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.ValidateUnwrappedValue;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Description:生成的校验器在运行时使用的辅助方法，以及查找实体对应的生成校验器。
+ * 生成的代码只依赖本类，避免直接依赖Hibernate Validator的内部实现。
+ *
+ * @author dbdu
+ */
+@Slf4j
+public final class GeneratedValidatorSupport {
+    private static final Class<?>[] DEFAULT_GROUPS = {Default.class};
+
+    private static final ClassValue<Optional<GeneratedValidator<Object>>> VALIDATORS = new ClassValue<Optional<GeneratedValidator<Object>>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Optional<GeneratedValidator<Object>> computeValue(Class<?> type) {
+            if (type.isPrimitive() || type.isArray()) {
+                return Optional.empty();
+            }
+            String name = type.getName() + GeneratedValidator.CLASS_SUFFIX;
+            try {
+                Class<?> validatorClass = Class.forName(name, true, type.getClassLoader());
+                if (GeneratedValidator.class.isAssignableFrom(validatorClass)) {
+                    return Optional.of((GeneratedValidator<Object>) validatorClass.newInstance());
+                }
+            } catch (ClassNotFoundException e) {
+                // 没有生成校验器，使用Hibernate Validator
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("load generated validator [{}] failed: {}", name, e.getMessage());
+            }
+            return Optional.empty();
+        }
+    };
+
+    private static final ClassValue<Boolean> GROUP_SEQUENCES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(GroupSequence.class);
+        }
+    };
+
+    private GeneratedValidatorSupport() {
+    }
+
+    /**
+     * 查找实体类对应的生成校验器，结果按类缓存
+     *
+     * @param type 实体类
+     * @return 生成的校验器，没有时返回null
+     */
+    public static GeneratedValidator<Object> find(Class<?> type) {
+        return VALIDATORS.get(type).orElse(null);
+    }
+
+    /**
+     * 生成的校验器不处理组序列，指定的验证组中有@GroupSequence时需要交给Hibernate Validator
+     */
+    public static boolean supportsGroups(Class<?>... groups) {
+        for (Class<?> group : groups) {
+            if (GROUP_SEQUENCES.get(group)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 创建读取字段的MethodHandle，只在生成的校验器初始化时调用一次
+     */
+    public static MethodHandle getter(Class<?> type, String fieldName) {
+        try {
+            Field field = type.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ValidationException("can not access field [" + fieldName + "] of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 读取字段值
+     */
+    public static Object get(MethodHandle getter, Object bean) {
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (Throwable e) {
+            throw new ValidationException("read property failed", e);
+        }
+    }
+
+    /**
+     * 构建不可变的注解属性Map，参数依次为：属性名,属性值,属性名,属性值...
+     */
+    public static Map<String, Object> attributes(Object... keyValues) {
+        Map<String, Object> attributes = new HashMap<>(keyValues.length);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            attributes.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * 约束是否属于本次激活的验证组，组之间的继承关系同Hibernate Validator
+     *
+     * @param requested        本次激活的验证组,为空时为Default组
+     * @param constraintGroups 约束声明的验证组,为空时为Default组
+     */
+    public static boolean inGroups(Class<?>[] requested, Class<?>[] constraintGroups) {
+        if (requested == null || requested.length == 0) {
+            requested = DEFAULT_GROUPS;
+        }
+        if (constraintGroups.length == 0) {
+            constraintGroups = DEFAULT_GROUPS;
+        }
+        for (Class<?> group : requested) {
+            for (Class<?> constraintGroup : constraintGroups) {
+                if (constraintGroup.isAssignableFrom(group)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 使用和@Email相同的规则校验邮箱地址，直接调用校验框架自己的@Email约束校验器(参见ValidatorEngine.getEmailValidator)，
+     * 不依赖其内部类，规则随校验框架的版本一致变化；@Email的校验器不使用校验上下文，传入null
+     */
+    public static boolean isEmail(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return true;
+        }
+        return ValidatorEngine.getInstance().getEmailValidator().isValid(value, null);
+    }
+
+    /**
+     * 记录一个不满足的约束，首次记录时才创建集合
+     */
+    public static List<ConstraintFailure> add(List<ConstraintFailure> failures, String property, Map<String, Object> attributes, Object invalidValue) {
+        if (failures == null) {
+            failures = new ArrayList<>(4);
+        }
+        failures.add(new ConstraintFailure(property, (String) attributes.get("message"), attributes, invalidValue));
+        return failures;
+    }
+
+    /**
+     * 为生成校验器的失败创建消息模板解释器的上下文，以便和Hibernate Validator得到相同的信息
+     */
+    public static MessageInterpolator.Context interpolatorContext(ConstraintFailure failure) {
+        return new FailureContext(failure);
+    }
+
+    private static final class FailureContext implements MessageInterpolator.Context, ConstraintDescriptor<Annotation> {
+        private final ConstraintFailure failure;
+
+        FailureContext(ConstraintFailure failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return this;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return failure.getInvalidValue();
+        }
+
+        @Override
+        public Annotation getAnnotation() {
+            return null;
+        }
+
+        @Override
+        public String getMessageTemplate() {
+            return failure.getMessageTemplate();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<Class<?>> getGroups() {
+            Class<?>[] groups = (Class<?>[]) failure.getAttributes().get("groups");
+            return groups == null ? Collections.emptySet() : new HashSet<>(Arrays.asList(groups));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<Class<? extends Payload>> getPayload() {
+            Class<? extends Payload>[] payload = (Class<? extends Payload>[]) failure.getAttributes().get("payload");
+            return payload == null ? Collections.emptySet() : new HashSet<>(Arrays.asList(payload));
+        }
+
+        @Override
+        public ConstraintTarget getValidationAppliesTo() {
+            return null;
+        }
+
+        @Override
+        public List<Class<? extends ConstraintValidator<Annotation, ?>>> getConstraintValidatorClasses() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return failure.getAttributes();
+        }
+
+        @Override
+        public Set<ConstraintDescriptor<?>> getComposingConstraints() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isReportAsSingleViolation() {
+            return false;
+        }
+
+        @Override
+        public ValidateUnwrappedValue getValueUnwrapping() {
+            return ValidateUnwrappedValue.DEFAULT;
+        }
+
+        @Override
+        public <U> U unwrap(Class<U> type) {
+            if (type.isInstance(this)) {
+                return type.cast(this);
+            }
+            throw new ValidationException("unwrap to " + type.getName() + " is not supported");
+        }
+    }
+}
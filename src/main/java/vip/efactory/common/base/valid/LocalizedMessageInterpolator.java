@@ -4,7 +4,7 @@ import javax.validation.MessageInterpolator;
 import java.util.Locale;
 
 /**
- * 国际化的实体属性注解的消息解析器，使用hiberbnate-validator默认的资源文件
+ * 国际化的实体属性注解的消息解析器，将Validator绑定的国际化区域传递给共享的CachingMessageInterpolator
  */
 public class LocalizedMessageInterpolator implements MessageInterpolator {
     private MessageInterpolator defaultInterpolator;
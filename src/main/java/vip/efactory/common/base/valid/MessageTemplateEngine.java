@@ -0,0 +1,210 @@
+package vip.efactory.common.base.valid;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Description:校验信息模板引擎，处理校验注解message里的国际化占位符及注解属性占位符，
+ * 例如：message="AAA{student.age}BBB {property.not.allow.negative}CCCC"，国际化信息里还可以使用注解属性,例如：{min}-{max}
+ * <p>
+ * 模板按(模板,国际化区域)只解析一次，国际化key在解析时就替换为对应区域的信息，注解属性则编译为占位片段，
+ * 渲染时一次遍历就能得到最终信息，避免了每次校验都split及多轮replace产生的大量临时对象。
+ *
+ * @author dbdu
+ */
+public class MessageTemplateEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MessageTemplateEngine.class);
+
+    /**
+     * 默认最多缓存的编译后模板数量，缓存满时整体清空后重新缓存
+     */
+    public static final int DEFAULT_MAX_TEMPLATES = 2048;
+    /**
+     * 渲染复用的StringBuilder超过此容量时丢弃，避免线程长期持有大对象
+     */
+    private static final int MAX_REUSED_CAPACITY = 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final BiFunction<String, Locale, String> keyResolver;
+    private final ConcurrentMap<TemplateKey, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    private final int maxTemplates;
+
+    /**
+     * @param keyResolver 国际化key的解析函数，找不到时返回null、空串或者key本身
+     */
+    public MessageTemplateEngine(BiFunction<String, Locale, String> keyResolver) {
+        this(keyResolver, DEFAULT_MAX_TEMPLATES);
+    }
+
+    public MessageTemplateEngine(BiFunction<String, Locale, String> keyResolver, int maxTemplates) {
+        this.keyResolver = keyResolver;
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * 渲染校验信息
+     *
+     * @param message    校验框架给出的信息,可能是硬编码的信息,也可能包含{key}占位符
+     * @param locale     国际化区域
+     * @param attributes 校验注解的属性,用于替换国际化信息里的{min}、{max}之类的占位符
+     * @return 最终的校验信息
+     */
+    public String render(String message, Locale locale, Map<String, Object> attributes) {
+        if (message == null) {
+            return null;
+        }
+        return compile(message, locale).render(attributes);
+    }
+
+    /**
+     * 获取编译后的模板，优先从缓存中获取
+     */
+    public CompiledTemplate compile(String message, Locale locale) {
+        // 不包含占位符的信息直接使用，不缓存：校验框架解释后的信息可能带有用户输入(例如${validatedValue})，不能占用缓存
+        if (message.indexOf('{') < 0 || message.indexOf('}') < 0) {
+            return new CompiledTemplate(new String[]{message}, new String[0]);
+        }
+        TemplateKey key = new TemplateKey(message, locale);
+        CompiledTemplate template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        template = doCompile(message, locale);
+        if (templates.size() >= maxTemplates) {
+            // 缓存满时整体清空，常用的模板很快会重新缓存，不会被一次性的信息长期占满
+            templates.clear();
+        }
+        templates.putIfAbsent(key, template);
+        return template;
+    }
+
+    /**
+     * 清空缓存的模板，国际化信息重新加载后需要调用
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private CompiledTemplate doCompile(String message, Locale locale) {
+        // 第一步：替换message里的国际化key,例如：{student.age}
+        StringBuilder resolved = new StringBuilder(message.length() + 32);
+        int start = 0;
+        int close;
+        while ((close = message.indexOf('}', start)) >= 0) {
+            int open = message.lastIndexOf('{', close);
+            if (open < start) {
+                resolved.append(message, start, close + 1);
+            } else {
+                String key = message.substring(open + 1, close);
+                resolved.append(message, start, open).append(resolveKey(key, locale));
+            }
+            start = close + 1;
+        }
+        resolved.append(message, start, message.length());
+
+        // 第二步：国际化信息里剩余的{name}编译为注解属性占位片段，例如：{min}-{max}
+        List<String> texts = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        int textStart = 0;
+        int open = resolved.indexOf("{");
+        while (open >= 0) {
+            close = resolved.indexOf("}", open);
+            if (close < 0) {
+                break;
+            }
+            int nested = resolved.lastIndexOf("{", close);
+            texts.add(resolved.substring(textStart, nested));
+            params.add(resolved.substring(nested + 1, close));
+            textStart = close + 1;
+            open = resolved.indexOf("{", textStart);
+        }
+        texts.add(resolved.substring(textStart));
+        return new CompiledTemplate(texts.toArray(new String[0]), params.toArray(new String[0]));
+    }
+
+    private String resolveKey(String key, Locale locale) {
+        String value = keyResolver.apply(key, locale);
+        if (value == null || value.isEmpty() || value.equals(key)) {
+            logger.warn("missing key [{}]", key);
+            return key;
+        }
+        return value;
+    }
+
+    /**
+     * 编译后的模板：texts[0] params[0] texts[1] params[1] ... texts[n]
+     */
+    public static final class CompiledTemplate {
+        private final String[] texts;
+        private final String[] params;
+
+        CompiledTemplate(String[] texts, String[] params) {
+            this.texts = texts;
+            this.params = params;
+        }
+
+        /**
+         * 使用注解属性渲染模板，不是注解属性的占位符原样保留
+         */
+        public String render(Map<String, Object> attributes) {
+            if (params.length == 0) {
+                return texts[0];
+            }
+            StringBuilder sb = BUILDER.get();
+            sb.setLength(0);
+            for (int i = 0; i < params.length; i++) {
+                sb.append(texts[i]);
+                Object value = attributes == null ? null : attributes.get(params[i]);
+                if (value == null) {
+                    sb.append('{').append(params[i]).append('}');
+                } else {
+                    sb.append(value);
+                }
+            }
+            sb.append(texts[params.length]);
+            String result = sb.toString();
+            if (sb.capacity() > MAX_REUSED_CAPACITY) {
+                BUILDER.remove();
+            }
+            return result;
+        }
+    }
+
+    private static final class TemplateKey {
+        private final String message;
+        private final Locale locale;
+        private final int hash;
+
+        TemplateKey(String message, Locale locale) {
+            this.message = message;
+            this.locale = locale;
+            this.hash = 31 * message.hashCode() + Objects.hashCode(locale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) o;
+            return message.equals(other.message) && Objects.equals(locale, other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package vip.efactory.common.base.valid;
+
+import java.util.*;
+
+/**
+ * Description:紧凑的只读校验结果，key为属性名，value为校验信息，按属性名排序。
+ * 没有错误时共享EMPTY实例，只有一个错误时不创建任何集合，两个及以上的错误才使用TreeMap，
+ * 适合表单字段实时校验这类高频、通常没有错误或只有一个错误的调用。
+ *
+ * @author dbdu
+ */
+public final class ValidationErrors extends AbstractMap<String, String> {
+    /**
+     * 没有错误的校验结果
+     */
+    public static final ValidationErrors EMPTY = new ValidationErrors(null, null, null);
+
+    private final String property;
+    private final String message;
+    private final SortedMap<String, String> errors;
+
+    private ValidationErrors(String property, String message, SortedMap<String, String> errors) {
+        this.property = property;
+        this.message = message;
+        this.errors = errors;
+    }
+
+    /**
+     * 只有一个错误的校验结果
+     */
+    public static ValidationErrors of(String property, String message) {
+        return new ValidationErrors(property, message, null);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 是否校验通过
+     */
+    public boolean isValid() {
+        return property == null;
+    }
+
+    /**
+     * 第一个错误的属性名(按属性名排序)，没有错误时为null
+     */
+    public String getFirstProperty() {
+        return errors == null ? property : errors.firstKey();
+    }
+
+    /**
+     * 第一个错误的校验信息(按属性名排序)，没有错误时为null
+     */
+    public String getFirstMessage() {
+        return errors == null ? message : errors.get(errors.firstKey());
+    }
+
+    @Override
+    public int size() {
+        if (errors != null) {
+            return errors.size();
+        }
+        return property == null ? 0 : 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return property == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (errors != null) {
+            return errors.containsKey(key);
+        }
+        return property != null && property.equals(key);
+    }
+
+    @Override
+    public String get(Object key) {
+        if (errors != null) {
+            return errors.get(key);
+        }
+        return property != null && property.equals(key) ? message : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (errors != null) {
+            return Collections.unmodifiableSortedMap(errors).entrySet();
+        }
+        if (property == null) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new SimpleImmutableEntry<>(property, message));
+    }
+
+    /**
+     * 逐个收集错误信息，第二个错误出现时才创建TreeMap；同一属性出现多次时后面的信息覆盖前面的
+     */
+    public static final class Builder {
+        private String property;
+        private String message;
+        private SortedMap<String, String> errors;
+
+        private Builder() {
+        }
+
+        public Builder add(String property, String message) {
+            if (errors != null) {
+                errors.put(property, message);
+            } else if (this.property == null || this.property.equals(property)) {
+                this.property = property;
+                this.message = message;
+            } else {
+                errors = new TreeMap<>();
+                errors.put(this.property, this.message);
+                errors.put(property, message);
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return property == null;
+        }
+
+        public ValidationErrors build() {
+            if (property == null) {
+                return EMPTY;
+            }
+            return new ValidationErrors(property, message, errors);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package vip.efactory.common.base.valid;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 批量校验时单个对象的校验结果
+ *
+ * @author dbdu
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ValidationResult {
+    /**
+     * 对象在批量数据中的序号,从0开始
+     */
+    private final long index;
+
+    /**
+     * 被校验的对象
+     */
+    private final Object target;
+
+    /**
+     * 校验的错误信息,key为属性名,没有错误时为空Map
+     */
+    private final Map<String, String> errors;
+
+    /**
+     * 是否校验通过
+     */
+    public boolean isValid() {
+        return errors == null || errors.isEmpty();
+    }
+}
@@ -0,0 +1,233 @@
+package vip.efactory.common.base.valid;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.HibernateValidatorFactory;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.Email;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 长期存活的校验引擎：整个应用只引导一次ValidatorFactory，并按国际化区域缓存Validator实例，
+ * 避免每次校验都重新引导Hibernate Validator及重新构建消息模板解释器。
+ * <p>
+ * Validator实例是线程安全的，可以被并发复用。
+ *
+ * @author dbdu
+ */
+@Slf4j
+public class ValidatorEngine {
+    /**
+     * 默认最多缓存的国际化区域数量，超出后的区域每次临时创建Validator，防止恶意的Accept-Language撑爆缓存
+     */
+    public static final int DEFAULT_MAX_LOCALES = 32;
+    /**
+     * 用户自定义的校验信息资源文件，同Hibernate Validator的默认值
+     */
+    public static final String USER_VALIDATION_MESSAGES = "ValidationMessages";
+
+    private static volatile ValidatorEngine instance;
+
+    private final ValidatorFactory factory;
+    private final CachingMessageInterpolator interpolator;
+    private final ConcurrentMap<Locale, Validator> validators = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Locale, Validator> failFastValidators = new ConcurrentHashMap<>();
+    private final int maxLocales;
+    private volatile ConstraintValidator<Email, CharSequence> emailValidator;
+
+    public ValidatorEngine() {
+        this(DEFAULT_MAX_LOCALES);
+    }
+
+    public ValidatorEngine(int maxLocales) {
+        this.maxLocales = maxLocales;
+        this.factory = Validation.buildDefaultValidatorFactory();
+        // 所有区域共享同一个带缓存的消息模板解释器，解释后的信息按(模板,区域,注解属性)缓存
+        this.interpolator = new CachingMessageInterpolator();
+    }
+
+    /**
+     * 获取全局共享的校验引擎，首次调用时才初始化
+     */
+    public static ValidatorEngine getInstance() {
+        ValidatorEngine engine = instance;
+        if (engine == null) {
+            synchronized (ValidatorEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    engine = new ValidatorEngine();
+                    instance = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * 关闭全局共享的校验引擎，释放ValidatorFactory持有的资源；之后再次使用时会重新初始化
+     */
+    public static void shutdown() {
+        synchronized (ValidatorEngine.class) {
+            if (instance != null) {
+                instance.close();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * 获取指定国际化区域的Validator，校验注解的默认信息会跟随该区域变化
+     *
+     * @param locale 国际化区域，为null时使用JVM默认区域
+     * @return Validator
+     */
+    public Validator getValidator(Locale locale) {
+        return getValidator(locale, false);
+    }
+
+    /**
+     * 获取指定国际化区域的Validator，校验注解的默认信息会跟随该区域变化
+     *
+     * @param locale   国际化区域，为null时使用JVM默认区域
+     * @param failFast 是否在发现第一个不满足的约束后立即停止校验
+     * @return Validator
+     */
+    public Validator getValidator(Locale locale, boolean failFast) {
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+        ConcurrentMap<Locale, Validator> cache = failFast ? failFastValidators : validators;
+        Validator validator = cache.get(locale);
+        if (validator != null) {
+            return validator;
+        }
+        if (cache.size() >= maxLocales) {
+            return createValidator(locale, failFast);
+        }
+        return cache.computeIfAbsent(locale, key -> createValidator(key, failFast));
+    }
+
+    /**
+     * 使用和Hibernate Validator相同的消息模板解释器处理生成校验器的失败信息
+     *
+     * @param failure 生成的校验器发现的不满足的约束
+     * @param locale  国际化区域
+     * @return 解释后的校验信息
+     */
+    public String interpolate(ConstraintFailure failure, Locale locale) {
+        return interpolator.interpolate(failure.getMessageTemplate(), GeneratedValidatorSupport.interpolatorContext(failure),
+                locale == null ? Locale.getDefault() : locale);
+    }
+
+    /**
+     * 获取共享的消息模板解释器，可用于查看缓存的命中情况
+     */
+    public CachingMessageInterpolator getInterpolator() {
+        return interpolator;
+    }
+
+    /**
+     * 获取@Email的约束校验器，通过公开的ConstraintValidatorFactory创建一次后复用，
+     * 生成的校验器直接调用其isValid，不经过Validator的元数据查找、校验上下文及信息解释
+     *
+     * @return 默认属性的@Email约束校验器
+     */
+    public ConstraintValidator<Email, CharSequence> getEmailValidator() {
+        ConstraintValidator<Email, CharSequence> validator = emailValidator;
+        if (validator == null) {
+            synchronized (this) {
+                validator = emailValidator;
+                if (validator == null) {
+                    validator = createEmailValidator();
+                    emailValidator = validator;
+                }
+            }
+        }
+        return validator;
+    }
+
+    /**
+     * 预加载实体类的约束元数据，避免第一个请求承担解析注解的开销
+     *
+     * @param classes 需要预加载的实体类
+     */
+    public void preload(Class<?>... classes) {
+        Validator validator = factory.getValidator();
+        for (Class<?> clazz : classes) {
+            if (clazz != null) {
+                validator.getConstraintsForClass(clazz);
+                log.debug("preloaded constraint metadata of [{}]", clazz.getName());
+            }
+        }
+    }
+
+    /**
+     * 关闭引擎，清空缓存的Validator并关闭ValidatorFactory
+     */
+    public void close() {
+        emailValidator = null;
+        validators.clear();
+        failFastValidators.clear();
+        interpolator.clear();
+        factory.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConstraintValidator<Email, CharSequence> createEmailValidator() {
+        Validator validator = factory.getValidator();
+        ConstraintDescriptor<?> descriptor = validator.getConstraintsForClass(EmailHolder.class)
+                .getConstraintsForProperty("value").getConstraintDescriptors().iterator().next();
+        for (Class<? extends ConstraintValidator<?, ?>> type : descriptor.getConstraintValidatorClasses()) {
+            Class<?> validatedType = validatedType(type);
+            if (validatedType != null && validatedType.isAssignableFrom(CharSequence.class)) {
+                ConstraintValidator<Email, CharSequence> constraintValidator =
+                        (ConstraintValidator<Email, CharSequence>) factory.getConstraintValidatorFactory().getInstance(type);
+                constraintValidator.initialize((Email) descriptor.getAnnotation());
+                return constraintValidator;
+            }
+        }
+        // 校验框架没有公开@Email的校验器类时，退回到按属性校验
+        log.debug("no ConstraintValidator class found for @Email, fall back to Validator.validateValue");
+        return (value, context) -> validator.validateValue(EmailHolder.class, "value", value).isEmpty();
+    }
+
+    /**
+     * ConstraintValidator第二个类型参数(被校验值的类型)，无法确定时返回null
+     */
+    private static Class<?> validatedType(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Type generic : current.getGenericInterfaces()) {
+                if (generic instanceof ParameterizedType && ((ParameterizedType) generic).getRawType() == ConstraintValidator.class) {
+                    Type argument = ((ParameterizedType) generic).getActualTypeArguments()[1];
+                    return argument instanceof Class ? (Class<?>) argument : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Validator createValidator(Locale locale, boolean failFast) {
+        // 这里使用我们自己定义的LocalizedMessageInterpolator消息模板解释器，从而达到获取的校验属性跟随国际化区域变化而变化的目的
+        // 此处参考:https://developer.ibm.com/zh/technologies/java/articles/j-cn-hibernate-validator/
+        return factory.unwrap(HibernateValidatorFactory.class).usingContext()
+                .failFast(failFast)
+                .messageInterpolator(new LocalizedMessageInterpolator(interpolator, locale))
+                .getValidator();
+    }
+
+    /**
+     * 只用于获取默认属性的@Email约束
+     */
+    private static final class EmailHolder {
+        @Email
+        private CharSequence value;
+    }
+}
@@ -0,0 +1,579 @@
+package vip.efactory.common.base.valid.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Description:可选的注解处理器，为只使用@NotNull、@Size、@Min、@Max、@Pattern、@Email约束的实体生成普通Java代码的校验器，
+ * ValidateModelUtil优先使用生成的校验器，没有时再使用Hibernate Validator，从而省去运行时反射解析约束元数据。
+ * <p>
+ * 实体有本处理器不认识的约束、级联校验、类级别约束、组序列或者父类有约束时，不生成校验器，交给Hibernate Validator处理。
+ * 本处理器没有注册到META-INF/services，需要的项目在编译插件中显式启用，例如：
+ * <pre>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;vip.efactory.common.base.valid.processor.ValidatorProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ *
+ * @author dbdu
+ */
+@SupportedAnnotationTypes({
+        ValidatorProcessor.NOT_NULL,
+        ValidatorProcessor.SIZE,
+        ValidatorProcessor.MIN,
+        ValidatorProcessor.MAX,
+        ValidatorProcessor.PATTERN,
+        ValidatorProcessor.EMAIL})
+public class ValidatorProcessor extends AbstractProcessor {
+    static final String NOT_NULL = "javax.validation.constraints.NotNull";
+    static final String SIZE = "javax.validation.constraints.Size";
+    static final String MIN = "javax.validation.constraints.Min";
+    static final String MAX = "javax.validation.constraints.Max";
+    static final String PATTERN = "javax.validation.constraints.Pattern";
+    static final String EMAIL = "javax.validation.constraints.Email";
+
+    private static final Set<String> SUPPORTED = new HashSet<>(Arrays.asList(NOT_NULL, SIZE, MIN, MAX, PATTERN, EMAIL));
+    private static final Set<String> INTEGRAL_TYPES = new HashSet<>(Arrays.asList(
+            "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long"));
+    private static final String CONSTRAINT = "javax.validation.Constraint";
+    private static final String VALIDATION_PACKAGE = "javax.validation.";
+    private static final String SUFFIX = "_GeneratedValidator";
+    private static final String SUPPORT = "vip.efactory.common.base.valid.GeneratedValidatorSupport";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+                if (element.getKind() == ElementKind.PARAMETER && enclosing != null) {
+                    enclosing = enclosing.getEnclosingElement();
+                }
+                if (enclosing instanceof TypeElement) {
+                    types.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            if (generated.add(elements().getBinaryName(type).toString())) {
+                generate(type);
+            }
+        }
+        // 不独占这些注解，其他处理器仍然可以处理
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        List<FieldConstraint> constraints = new ArrayList<>();
+        String reason = collect(type, constraints);
+        if (reason != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "skip generating validator for " + type.getQualifiedName() + ": " + reason + ", Hibernate Validator will be used");
+            return;
+        }
+        String packageName = elements().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(render(packageName, simpleName, type, constraints));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "generate validator failed: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * 收集实体字段上的约束，返回不能生成校验器的原因，可以生成时返回null
+     */
+    private String collect(TypeElement type, List<FieldConstraint> constraints) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return "not a class";
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "abstract class";
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local or anonymous class";
+            }
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return "private class";
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) {
+                return "inner class";
+            }
+        }
+        if (hasValidationAnnotation(type.getAnnotationMirrors())) {
+            return "class level constraints or group sequence";
+        }
+        String inherited = checkSupertypes(type);
+        if (inherited != null) {
+            return inherited;
+        }
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD) {
+                VariableElement field = (VariableElement) member;
+                if (hasValidationAnnotation(typeArgumentAnnotations(field.asType())) || hasTypeUseAnnotationInSource(field)) {
+                    return "container element constraints on " + field.getSimpleName();
+                }
+                for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                    String name = annotationName(mirror);
+                    if (SUPPORTED.contains(name)) {
+                        if (field.getModifiers().contains(Modifier.STATIC)) {
+                            return "constraint on static field " + field.getSimpleName();
+                        }
+                        String unsupported = addConstraint(field, name, mirror, constraints);
+                        if (unsupported != null) {
+                            return unsupported;
+                        }
+                    } else if (isValidationAnnotation(mirror)) {
+                        return "unsupported annotation @" + name + " on " + field.getSimpleName();
+                    }
+                }
+            } else if (hasMemberValidationAnnotation(member)) {
+                return "constraints on method " + member.getSimpleName();
+            }
+        }
+        return constraints.isEmpty() ? "no field constraints" : null;
+    }
+
+    /**
+     * 父类及接口上有约束时，Hibernate Validator也会校验它们，这种情况不生成校验器
+     */
+    private String checkSupertypes(TypeElement type) {
+        Deque<TypeMirror> pending = new ArrayDeque<>(types().directSupertypes(type.asType()));
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            TypeMirror supertype = pending.poll();
+            if (supertype.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) supertype).asElement();
+            String name = element.getQualifiedName().toString();
+            if ("java.lang.Object".equals(name) || !visited.add(name)) {
+                continue;
+            }
+            if (hasValidationAnnotation(element.getAnnotationMirrors())) {
+                return "constraints declared on supertype " + name;
+            }
+            for (Element member : element.getEnclosedElements()) {
+                if (hasMemberValidationAnnotation(member)) {
+                    return "constraints declared on supertype " + name;
+                }
+            }
+            pending.addAll(types().directSupertypes(supertype));
+        }
+        return null;
+    }
+
+    private boolean hasMemberValidationAnnotation(Element member) {
+        if (hasValidationAnnotation(member.getAnnotationMirrors())) {
+            return true;
+        }
+        if (member instanceof ExecutableElement) {
+            ExecutableElement executable = (ExecutableElement) member;
+            if (hasValidationAnnotation(typeArgumentAnnotations(executable.getReturnType()))) {
+                return true;
+            }
+            for (VariableElement parameter : executable.getParameters()) {
+                if (hasValidationAnnotation(parameter.getAnnotationMirrors())) {
+                    return true;
+                }
+            }
+        } else if (member.getKind() == ElementKind.FIELD) {
+            return hasValidationAnnotation(typeArgumentAnnotations(member.asType()));
+        }
+        return false;
+    }
+
+    private String addConstraint(VariableElement field, String name, AnnotationMirror mirror, List<FieldConstraint> constraints) {
+        TypeMirror type = field.asType();
+        boolean supported;
+        switch (name) {
+            case NOT_NULL:
+                supported = true;
+                break;
+            case SIZE:
+                supported = isCharSequence(type) || isAssignable(type, "java.util.Collection")
+                        || isAssignable(type, "java.util.Map") || type.getKind() == TypeKind.ARRAY;
+                break;
+            case MIN:
+            case MAX:
+                supported = isIntegral(type) || isAssignable(type, "java.math.BigDecimal") || isAssignable(type, "java.math.BigInteger");
+                break;
+            default:
+                supported = isCharSequence(type);
+                break;
+        }
+        if (!supported) {
+            return "@" + name + " on unsupported type " + type + " of " + field.getSimpleName();
+        }
+        Map<String, AnnotationValue> values = new LinkedHashMap<>();
+        Map<String, TypeMirror> valueTypes = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements().getElementValuesWithDefaults(mirror).entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            values.put(attribute, entry.getValue());
+            valueTypes.put(attribute, entry.getKey().getReturnType());
+        }
+        constraints.add(new FieldConstraint(field, name, values, valueTypes));
+        return null;
+    }
+
+    private String render(String packageName, String simpleName, TypeElement type, List<FieldConstraint> constraints) {
+        String beanType = type.getQualifiedName().toString();
+        StringBuilder fields = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        Set<String> getters = new LinkedHashSet<>();
+
+        int index = 0;
+        String currentField = null;
+        for (FieldConstraint constraint : constraints) {
+            String fieldName = constraint.field.getSimpleName().toString();
+            String local = "v_" + fieldName;
+            TypeMirror fieldType = constraint.field.asType();
+            if (getters.add(fieldName)) {
+                fields.append("    private static final java.lang.invoke.MethodHandle G_").append(fieldName).append(" = ")
+                        .append(SUPPORT).append(".getter(").append(beanType).append(".class, \"").append(fieldName).append("\");\n");
+            }
+            if (!fieldName.equals(currentField)) {
+                currentField = fieldName;
+                String declared = typeName(fieldType);
+                String cast = fieldType.getKind().isPrimitive() ? types().boxedClass((javax.lang.model.type.PrimitiveType) fieldType).getQualifiedName().toString() : declared;
+                body.append("        ").append(declared).append(' ').append(local).append(" = (").append(cast).append(") ")
+                        .append(SUPPORT).append(".get(G_").append(fieldName).append(", bean);\n");
+            }
+
+            String groups = "GROUPS_" + index;
+            String attributes = "ATTRIBUTES_" + index;
+            fields.append("    private static final Class<?>[] ").append(groups).append(" = ").append(classArray(constraint.values.get("groups"))).append(";\n");
+            fields.append("    private static final java.util.Map<String, Object> ").append(attributes).append(" = ").append(SUPPORT).append(".attributes(");
+            boolean first = true;
+            for (Map.Entry<String, AnnotationValue> entry : constraint.values.entrySet()) {
+                if (!first) {
+                    fields.append(", ");
+                }
+                first = false;
+                fields.append(javaString(entry.getKey())).append(", ")
+                        .append("groups".equals(entry.getKey()) ? groups : literal(constraint, entry.getKey(), entry.getValue()));
+            }
+            fields.append(");\n");
+
+            String condition = condition(constraint, local, index, fields);
+            if (condition != null) {
+                body.append("        if (").append(condition).append(" && ").append(SUPPORT).append(".inGroups(groups, ").append(groups).append(")) {\n")
+                        .append("            failures = ").append(SUPPORT).append(".add(failures, \"").append(fieldName).append("\", ")
+                        .append(attributes).append(", ").append(local).append(");\n")
+                        .append("        }\n");
+            }
+            index++;
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * 由ValidatorProcessor为").append(beanType).append("生成的校验器，请勿修改\n */\n")
+                .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements vip.efactory.common.base.valid.GeneratedValidator<").append(beanType).append("> {\n")
+                .append(fields).append('\n')
+                .append("    @Override\n")
+                .append("    public java.util.List<vip.efactory.common.base.valid.ConstraintFailure> validate(")
+                .append(beanType).append(" bean, Class<?>... groups) {\n")
+                .append("        java.util.List<vip.efactory.common.base.valid.ConstraintFailure> failures = null;\n")
+                .append(body)
+                .append("        return failures == null ? java.util.Collections.<vip.efactory.common.base.valid.ConstraintFailure>emptyList() : failures;\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 生成约束不满足时的判断条件，返回null表示约束总是满足
+     */
+    private String condition(FieldConstraint constraint, String v, int index, StringBuilder fields) {
+        TypeMirror type = constraint.field.asType();
+        boolean primitive = type.getKind().isPrimitive();
+        switch (constraint.name) {
+            case NOT_NULL:
+                return primitive ? null : v + " == null";
+            case SIZE: {
+                String length = isCharSequence(type) ? v + ".length()" : type.getKind() == TypeKind.ARRAY ? v + ".length" : v + ".size()";
+                int min = (Integer) constraint.values.get("min").getValue();
+                int max = (Integer) constraint.values.get("max").getValue();
+                return v + " != null && (" + length + " < " + min + " || " + length + " > " + max + ")";
+            }
+            case MIN:
+            case MAX: {
+                long value = (Long) constraint.values.get("value").getValue();
+                String operator = MIN.equals(constraint.name) ? "<" : ">";
+                String nullCheck = primitive ? "" : v + " != null && ";
+                if (isIntegral(type)) {
+                    return nullCheck + v + " " + operator + " " + value + "L";
+                }
+                String bound = "BOUND_" + index;
+                String boundType = isAssignable(type, "java.math.BigDecimal") ? "java.math.BigDecimal" : "java.math.BigInteger";
+                fields.append("    private static final ").append(boundType).append(' ').append(bound).append(" = ")
+                        .append(boundType).append(".valueOf(").append(value).append("L);\n");
+                return nullCheck + v + ".compareTo(" + bound + ") " + operator + " 0";
+            }
+            case PATTERN: {
+                String pattern = compilePattern(constraint, index, fields);
+                return v + " != null && !" + pattern + ".matcher(" + v + ").matches()";
+            }
+            default: {
+                String regexp = (String) constraint.values.get("regexp").getValue();
+                String check = "!" + SUPPORT + ".isEmail(" + v + ")";
+                if (!".*".equals(regexp) || !((List<?>) constraint.values.get("flags").getValue()).isEmpty()) {
+                    check = "(" + check + " || !" + compilePattern(constraint, index, fields) + ".matcher(" + v + ").matches())";
+                }
+                return v + " != null && " + v + ".length() > 0 && " + check;
+            }
+        }
+    }
+
+    private String compilePattern(FieldConstraint constraint, int index, StringBuilder fields) {
+        String pattern = "PATTERN_" + index;
+        StringBuilder flags = new StringBuilder();
+        for (Object flag : (List<?>) constraint.values.get("flags").getValue()) {
+            Object element = ((AnnotationValue) flag).getValue();
+            flags.append(flags.length() == 0 ? "" : " | ").append("java.util.regex.Pattern.").append(((VariableElement) element).getSimpleName());
+        }
+        fields.append("    private static final java.util.regex.Pattern ").append(pattern).append(" = java.util.regex.Pattern.compile(")
+                .append(javaString((String) constraint.values.get("regexp").getValue()))
+                .append(flags.length() == 0 ? "" : ", " + flags).append(");\n");
+        return pattern;
+    }
+
+    /**
+     * 注解属性值的Java表达式，类型与运行时注解属性的类型保持一致
+     */
+    private String literal(FieldConstraint constraint, String name, AnnotationValue annotationValue) {
+        Object value = annotationValue.getValue();
+        if (value instanceof String) {
+            return javaString((String) value);
+        }
+        if (value instanceof Long) {
+            return "Long.valueOf(" + value + "L)";
+        }
+        if (value instanceof Integer) {
+            return "Integer.valueOf(" + value + ")";
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            TypeMirror componentType = ((ArrayType) constraint.types.get(name)).getComponentType();
+            if ("java.lang.Class".equals(typeName(componentType))) {
+                return classArray(annotationValue);
+            }
+            StringBuilder array = new StringBuilder("new ").append(typeName(componentType)).append("[]{");
+            for (int i = 0; i < list.size(); i++) {
+                VariableElement constant = (VariableElement) ((AnnotationValue) list.get(i)).getValue();
+                array.append(i == 0 ? "" : ", ").append(typeName(componentType)).append('.').append(constant.getSimpleName());
+            }
+            return array.append('}').toString();
+        }
+        return annotationValue.toString();
+    }
+
+    private String classArray(AnnotationValue annotationValue) {
+        StringBuilder array = new StringBuilder("new Class<?>[]{");
+        List<?> list = (List<?>) annotationValue.getValue();
+        for (int i = 0; i < list.size(); i++) {
+            TypeMirror type = (TypeMirror) ((AnnotationValue) list.get(i)).getValue();
+            array.append(i == 0 ? "" : ", ").append(typeName(type)).append(".class");
+        }
+        return array.append('}').toString();
+    }
+
+    private boolean hasValidationAnnotation(List<? extends AnnotationMirror> mirrors) {
+        for (AnnotationMirror mirror : mirrors) {
+            if (isValidationAnnotation(mirror)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bean Validation的注解(包括@Valid及组序列)或者自定义的约束注解
+     */
+    private boolean isValidationAnnotation(AnnotationMirror mirror) {
+        if (annotationName(mirror).startsWith(VALIDATION_PACKAGE)) {
+            return true;
+        }
+        for (AnnotationMirror meta : mirror.getAnnotationType().asElement().getAnnotationMirrors()) {
+            if (CONSTRAINT.equals(annotationName(meta))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<AnnotationMirror> typeArgumentAnnotations(TypeMirror type) {
+        List<AnnotationMirror> mirrors = new ArrayList<>();
+        if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            mirrors.addAll(component.getAnnotationMirrors());
+            mirrors.addAll(typeArgumentAnnotations(component));
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                mirrors.addAll(argument.getAnnotationMirrors());
+                mirrors.addAll(typeArgumentAnnotations(argument));
+            }
+        }
+        return mirrors;
+    }
+
+    /**
+     * JDK8的javac不会把泛型参数上的注解放到TypeMirror里，例如：List&lt;@NotNull String&gt;，需要从语法树里检查，
+     * 字段的类型里出现任何注解都按容器元素约束处理。语法树API在JDK8的tools.jar里，因此通过反射调用，非javac编译器时忽略。
+     */
+    private boolean hasTypeUseAnnotationInSource(VariableElement field) {
+        try {
+            Class<?> treesClass = Class.forName("com.sun.source.util.Trees");
+            Object trees = treesClass.getMethod("instance", ProcessingEnvironment.class).invoke(null, processingEnv);
+            Object tree = treesClass.getMethod("getTree", Element.class).invoke(trees, field);
+            Class<?> variableTreeClass = Class.forName("com.sun.source.tree.VariableTree");
+            if (variableTreeClass.isInstance(tree)) {
+                Object typeTree = variableTreeClass.getMethod("getType").invoke(tree);
+                return typeTree != null && typeTree.toString().indexOf('@') >= 0;
+            }
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // 不是javac编译器，只能依赖TypeMirror上的注解
+        }
+        return false;
+    }
+
+    /**
+     * 生成代码里使用的类型名，去掉泛型参数及类型注解
+     */
+    private String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return type.getKind().name().toLowerCase(Locale.ROOT);
+            default:
+                return typeName(types().erasure(type));
+        }
+    }
+
+    private boolean isCharSequence(TypeMirror type) {
+        return isAssignable(type, "java.lang.CharSequence");
+    }
+
+    private boolean isIntegral(TypeMirror type) {
+        switch (type.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return true;
+            case DECLARED:
+                return INTEGRAL_TYPES.contains(typeName(type));
+            default:
+                return false;
+        }
+    }
+
+    private boolean isAssignable(TypeMirror type, String className) {
+        TypeElement target = elements().getTypeElement(className);
+        return target != null && type.getKind() == TypeKind.DECLARED
+                && types().isAssignable(types().erasure(type), types().erasure(target.asType()));
+    }
+
+    private static String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static String javaString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private Elements elements() {
+        return processingEnv.getElementUtils();
+    }
+
+    private Types types() {
+        return processingEnv.getTypeUtils();
+    }
+
+    /**
+     * 字段上的一个约束
+     */
+    private static final class FieldConstraint {
+        private final VariableElement field;
+        private final String name;
+        private final Map<String, AnnotationValue> values;
+        private final Map<String, TypeMirror> types;
+
+        FieldConstraint(VariableElement field, String name, Map<String, AnnotationValue> values, Map<String, TypeMirror> types) {
+            this.field = field;
+            this.name = name;
+            this.values = values;
+            this.types = types;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package vip.efactory.common.base.valid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Description:简单的性能对比：旧的split/replace方式 vs 编译后的模板引擎，直接运行main方法
+ *
+ * @author dbdu
+ */
+public class MessageTemplateBenchmark {
+
+    public static void main(String[] args) {
+        Map<String, String> bundle = new HashMap<>();
+        bundle.put("student.age", "年龄");
+        bundle.put("property.length.between", "长度必须在{min}和{max}之间");
+        BiFunction<String, Locale, String> keyResolver = (key, locale) -> bundle.get(key);
+        MessageTemplateEngine engine = new MessageTemplateEngine(keyResolver);
+
+        String message = "AAA{student.age}BBB {property.length.between}CCCC";
+        Map<String, Object> params = new HashMap<>();
+        params.put("min", 2);
+        params.put("max", 20);
+        params.put("message", message);
+        Locale locale = Locale.SIMPLIFIED_CHINESE;
+        int iterations = 1_000_000;
+
+        System.out.println(legacyResolveMessage(message, locale, params, keyResolver));
+        System.out.println(engine.render(message, locale, params));
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            int sink = 0;
+            for (int i = 0; i < iterations; i++) {
+                sink += legacyResolveMessage(message, locale, params, keyResolver).length();
+            }
+            long legacy = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += engine.render(message, locale, params).length();
+            }
+            long compiled = System.nanoTime() - begin;
+            System.out.println("round " + round + ": split/replace " + legacy / iterations + " ns/op, compiled template "
+                    + compiled / iterations + " ns/op (" + sink + ")");
+        }
+    }
+
+    /**
+     * 旧的占位符处理方式：split切分出所有key后多轮replace
+     */
+    private static String legacyResolveMessage(String message, Locale locale, Map<String, Object> params, BiFunction<String, Locale, String> keyResolver) {
+        if (message.contains("{") && message.contains("}")) {
+            String[] rawKeys = message.split("}");
+            List<String> keys = new ArrayList<>();
+            for (String rawKey : rawKeys) {
+                if (rawKey.contains("{")) {
+                    keys.add(rawKey.substring(rawKey.lastIndexOf("{") + 1));
+                }
+            }
+            for (String key : keys) {
+                String value = keyResolver.apply(key, locale);
+                if (value == null || value.isEmpty() || value.equals(key)) {
+                    value = key;
+                }
+                message = message.replace("{" + key + "}", value);
+            }
+            if (message.contains("{") && message.contains("}")) {
+                for (Map.Entry<String, Object> param : params.entrySet()) {
+                    message = message.replace("{" + param.getKey() + "}", param.getValue().toString());
+                }
+            }
+        }
+        return message;
+    }
+}